@@ -0,0 +1,40 @@
+// So sánh platform threads và virtual threads (xem REAME.md, mục "Virtual threads").
+// Chạy: k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=admin@example.com -e PASSWORD=... perf/k6-compare.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 50 },
+                { duration: '1m', target: 200 },
+                { duration: '1m', target: 400 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login ok': (r) => r.status === 200 });
+    return { token: res.json('token') };
+}
+
+export default function (data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/invoices?page=0&size=20`, null, params],
+        ['GET', `${BASE_URL}/api/registrations?page=0&size=20`, null, params],
+        ['GET', `${BASE_URL}/api/requests?status=PENDING&size=20`, null, params],
+    ]);
+    responses.forEach((r) => check(r, { 'status 200': (res) => res.status === 200 }));
+}
@@ -0,0 +1,40 @@
+package com.example.demoapi.benchmark;
+
+import com.example.demoapi.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Đường lỗi nghiệp vụ: Service ném RuntimeException -> GlobalExceptionHandler trả 400.
+ * - handleOnly: chỉ phần dựng body/ResponseEntity.
+ * - throwAndHandle: gồm cả chi phí tạo exception (fillInStackTrace) - con số thực tế mỗi request lỗi.
+ */
+@State(Scope.Benchmark)
+public class ExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private RuntimeException prebuilt;
+
+    @Setup
+    public void setup() {
+        handler = new GlobalExceptionHandler();
+        prebuilt = new RuntimeException("Hóa đơn không tồn tại");
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> handleOnly() {
+        return handler.handleRuntimeException(prebuilt);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> throwAndHandle() {
+        try {
+            throw new RuntimeException("Hóa đơn không tồn tại");
+        } catch (RuntimeException e) {
+            return handler.handleRuntimeException(e);
+        }
+    }
+}
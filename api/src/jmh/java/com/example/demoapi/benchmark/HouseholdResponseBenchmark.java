@@ -0,0 +1,43 @@
+package com.example.demoapi.benchmark;
+
+import com.example.demoapi.dto.response.HouseholdResponse;
+import com.example.demoapi.model.ApartmentStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * HouseholdResponse được tạo cho mỗi dòng của danh sách hộ (projection JPQL gọi constructor).
+ * So sánh constructor (đường projection) với builder (đường map thủ công).
+ */
+@State(Scope.Benchmark)
+public class HouseholdResponseBenchmark {
+
+    public Integer id = 42;
+    public String roomNumber = "P1204";
+    public String ownerName = "Nguyễn Văn A";
+    public Double area = 72.5;
+    public Long memberCount = 4L;
+    public String phoneNumber = "0901234567";
+    public String building = "A";
+
+    @Benchmark
+    public HouseholdResponse constructor() {
+        return new HouseholdResponse(id, roomNumber, ownerName, area, memberCount, phoneNumber, building,
+                ApartmentStatus.OCCUPIED);
+    }
+
+    @Benchmark
+    public HouseholdResponse builder() {
+        return HouseholdResponse.builder()
+                .id(id)
+                .roomNumber(roomNumber)
+                .ownerName(ownerName)
+                .area(area)
+                .memberCount(memberCount)
+                .phoneNumber(phoneNumber)
+                .building(building)
+                .status(ApartmentStatus.OCCUPIED)
+                .build();
+    }
+}
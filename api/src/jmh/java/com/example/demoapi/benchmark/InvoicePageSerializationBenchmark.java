@@ -0,0 +1,68 @@
+package com.example.demoapi.benchmark;
+
+import com.example.demoapi.dto.response.InvoiceDetailResponse;
+import com.example.demoapi.dto.response.InvoiceResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đo chi phí Jackson ghi 1 trang hóa đơn (Page<InvoiceResponse>) ra JSON - phần lớn thời gian
+ * của GET /api/invoices khi dữ liệu đã nằm trong bộ nhớ.
+ * ObjectMapper dựng giống Spring Boot (Jackson2ObjectMapperBuilder: JavaTimeModule, tắt WRITE_DATES_AS_TIMESTAMPS).
+ */
+@State(Scope.Benchmark)
+public class InvoicePageSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private Page<InvoiceResponse> page;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writer();
+
+        List<InvoiceResponse> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            List<InvoiceDetailResponse> details = List.of(
+                    InvoiceDetailResponse.builder().id(i * 2).feeName("Phí quản lý").unitPrice(BigDecimal.valueOf(15000))
+                            .unit("m2").quantity(70.5).amount(BigDecimal.valueOf(1057500)).build(),
+                    InvoiceDetailResponse.builder().id(i * 2 + 1).feeName("Phí gửi xe").unitPrice(BigDecimal.valueOf(120000))
+                            .unit("xe").quantity(1.0).amount(BigDecimal.valueOf(120000)).build());
+            items.add(InvoiceResponse.builder()
+                    .id(i)
+                    .title("Hóa đơn T12/2025")
+                    .roomNumber("P" + (1000 + i))
+                    .month(12)
+                    .year(2025)
+                    .dueDate(LocalDate.of(2026, 1, 10))
+                    .status("unpaid")
+                    .totalAmount(BigDecimal.valueOf(1177500))
+                    .details(details)
+                    .build());
+        }
+        page = new PageImpl<>(items, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demoapi.security;
+
+import com.example.demoapi.config.JwtKeyProperties;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * Đo đường nóng của JwtService (chạy ở MỌI request có Bearer token):
+ * ký token, parse 1 lần (như JwtAuthenticationFilter) và validate.
+ */
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(new JwtKeyProperties(), SECRET, 15 * 60 * 1000L);
+        userDetails = new User("resident@example.com", "ignored",
+                List.of(new SimpleGrantedAuthority("ROLE_RESIDENT")));
+        token = jwtService.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtService.parseAccessToken(token);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtService.validateAccessToken(token, userDetails);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.response.InvoiceResponse;
+import com.example.demoapi.model.Apartment;
+import com.example.demoapi.model.Fee;
+import com.example.demoapi.model.Invoice;
+import com.example.demoapi.model.Invoicedetail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đo InvoiceService.mapToResponse (Entity -> DTO) với số dòng chi tiết khác nhau.
+ * Nằm cùng package với InvoiceService để gọi được helper package-private.
+ */
+@State(Scope.Benchmark)
+public class InvoiceMappingBenchmark {
+
+    @Param({"3", "12"})
+    public int detailCount;
+
+    private Invoice invoice;
+    private List<Invoicedetail> details;
+
+    @Setup
+    public void setup() {
+        Apartment apartment = new Apartment();
+        apartment.setHouseid(1);
+        apartment.setApartmentNumber("P1204");
+
+        invoice = new Invoice();
+        invoice.setInvoiceid(1);
+        invoice.setHouseid(apartment);
+        invoice.setMonth(12);
+        invoice.setYear(2025);
+        invoice.setDuedate(LocalDate.of(2026, 1, 10));
+        invoice.setStatus("unpaid");
+        invoice.setTotalamount(BigDecimal.ZERO);
+
+        details = new ArrayList<>();
+        for (int i = 0; i < detailCount; i++) {
+            Fee fee = new Fee();
+            fee.setId(i + 1);
+            fee.setFeename("Phí " + i);
+            fee.setUnitprice(BigDecimal.valueOf(15000));
+            fee.setUnit("m2");
+
+            Invoicedetail detail = new Invoicedetail();
+            detail.setId(i + 1);
+            detail.setInvoiceid(invoice);
+            detail.setFeeid(fee);
+            detail.setQuantity(70.5);
+            detail.setAmount(BigDecimal.valueOf(15000).multiply(BigDecimal.valueOf(70.5)));
+            details.add(detail);
+        }
+    }
+
+    @Benchmark
+    public InvoiceResponse mapToResponse() {
+        return InvoiceService.mapToResponse(invoice, details);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demoapi.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thống kê độ trễ của 1 endpoint. Mỗi virtual user giữ bản riêng (không khóa),
+ * cuối lượt chạy mới gộp lại và tính phân vị.
+ */
+class LatencyStats {
+
+    private long[] samplesMicros = new long[1024];
+    private int count;
+    private int errors;
+
+    void record(long micros, boolean ok) {
+        if (count == samplesMicros.length) {
+            samplesMicros = Arrays.copyOf(samplesMicros, count * 2);
+        }
+        samplesMicros[count++] = micros;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyStats other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samplesMicros[i], true);
+        }
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    // Tóm tắt theo ms: p50/p95/p99/max + throughput
+    Map<String, Object> summary(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(samplesMicros, count);
+        Arrays.sort(sorted);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("errors", errors);
+        result.put("throughputPerSec", round(count / durationSeconds));
+        result.put("p50Ms", percentileMs(sorted, 0.50));
+        result.put("p95Ms", percentileMs(sorted, 0.95));
+        result.put("p99Ms", percentileMs(sorted, 0.99));
+        result.put("maxMs", count == 0 ? 0 : round(sorted[count - 1] / 1000.0));
+        return result;
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return round(sorted[Math.max(index, 0)] / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
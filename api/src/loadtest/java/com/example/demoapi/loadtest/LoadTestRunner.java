@@ -0,0 +1,286 @@
+package com.example.demoapi.loadtest;
+
+import com.example.demoapi.DemoApiApplication;
+import com.example.demoapi.seed.SeedProperties;
+import com.example.demoapi.seed.SyntheticDataGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demoapi.metrics.SecondLevelCacheStats;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test lặp lại được: Postgres nhúng -> khởi động app -> sinh dữ liệu -> chạy kịch bản -> báo cáo.
+ * <pre>
+ * ./gradlew loadTest -Ploadtest.concurrency=32 -Ploadtest.duration-seconds=120
+ * ./gradlew loadTest -PjavaVersion=21 -Ploadtest.profile=virtual   (cùng kịch bản trên virtual threads)
+ * </pre>
+ * Kịch bản mỗi virtual user (vòng lặp): đăng nhập (mỗi `relogin-every` vòng) -> xem danh sách hóa đơn
+ * -> thanh toán 1 phần hóa đơn chưa trả -> gửi đơn tạm vắng.
+ * Kết quả: p50/p95/p99/max + throughput theo endpoint, in ra console và ghi JSON vào build/reports/loadtest.
+ */
+public class LoadTestRunner {
+
+    private static final String PASSWORD = "LoadTest@123";
+
+    private static final String LOGIN = "POST /api/auth/login";
+    private static final String LIST_INVOICES = "GET /api/invoices";
+    private static final String PAY = "POST /api/payment/simulate";
+    private static final String REGISTER = "POST /api/registrations";
+
+    private final int concurrency = intProperty("loadtest.concurrency", 16);
+    private final int warmupSeconds = intProperty("loadtest.warmup-seconds", 10);
+    private final int durationSeconds = intProperty("loadtest.duration-seconds", 60);
+    private final int reloginEvery = intProperty("loadtest.relogin-every", 20);
+    // Profile Spring bật thêm, VD "virtual" (application-virtual.properties) để so sánh 2 mô hình thread
+    private final String profile = System.getProperty("loadtest.profile", "").trim();
+    private final SeedProperties scale = scale();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    // Mỗi đơn tạm vắng dùng 1 khoảng ngày riêng -> không bao giờ trùng lịch (tránh lỗi nghiệp vụ giả)
+    private final AtomicInteger registrationWindow = new AtomicInteger();
+
+    private String baseUrl;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+    }
+
+    private void run() throws Exception {
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            String jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+
+            // 1. Khởi động app trên cổng ngẫu nhiên (tham số dòng lệnh đè application.properties)
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres",
+                    "--spring.datasource.hikari.maximum-pool-size=" + intProperty("loadtest.db-pool-size", 10),
+                    "--security.rate-limit.enabled=false"));
+            if (!profile.isEmpty()) {
+                appArgs.add("--spring.profiles.active=" + profile);
+            }
+            ConfigurableApplicationContext context = SpringApplication.run(DemoApiApplication.class,
+                    appArgs.toArray(String[]::new));
+            try {
+                baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+                // 2. Sinh dữ liệu (cùng 1 mật khẩu cho mọi tài khoản -> chỉ băm 1 lần)
+                long seedStart = System.nanoTime();
+                String passwordHash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+                SyntheticDataGenerator.Summary seeded =
+                        new SyntheticDataGenerator(context.getBean(DataSource.class)).generate(scale, passwordHash);
+                // COPY đi vòng qua Hibernate -> bỏ mọi thứ second-level cache đã giữ trước đó
+                context.getBean(SecondLevelCacheStats.class).evictAll();
+                List<SyntheticDataGenerator.SeededAccount> accounts = seeded.hostAccounts();
+                System.out.printf("Seeded %d apartments, %d accounts, %d invoices in %d ms%n",
+                        seeded.apartments(), seeded.accounts(), seeded.invoices(), (System.nanoTime() - seedStart) / 1_000_000);
+
+                // 3. Chạy kịch bản
+                Map<String, LatencyStats> stats = drive(accounts);
+
+                // 4. Báo cáo
+                report(stats);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private Map<String, LatencyStats> drive(List<SyntheticDataGenerator.SeededAccount> accounts) throws Exception {
+        long measureStart = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = measureStart + durationSeconds * 1_000_000_000L;
+        System.out.printf("Running %d virtual users: %ds warm-up + %ds measured%n", concurrency, warmupSeconds, durationSeconds);
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencyStats>>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            SyntheticDataGenerator.SeededAccount account = accounts.get(i % accounts.size());
+            futures.add(pool.submit(() -> virtualUser(account, measureStart, end)));
+        }
+
+        Map<String, LatencyStats> merged = new LinkedHashMap<>();
+        for (String endpoint : List.of(LOGIN, LIST_INVOICES, PAY, REGISTER)) {
+            merged.put(endpoint, new LatencyStats());
+        }
+        for (Future<Map<String, LatencyStats>> future : futures) {
+            future.get().forEach((endpoint, s) -> merged.get(endpoint).merge(s));
+        }
+        pool.shutdown();
+        return merged;
+    }
+
+    private Map<String, LatencyStats> virtualUser(SyntheticDataGenerator.SeededAccount account, long measureStart, long end) {
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        String token = null;
+        int iteration = 0;
+
+        while (System.nanoTime() < end) {
+            try {
+                if (token == null || iteration % reloginEvery == 0) {
+                    Result login = call(stats, measureStart, LOGIN, post("/api/auth/login", null,
+                            Map.of("email", account.email(), "password", PASSWORD)));
+                    token = login.ok() ? login.json().path("token").asText(null) : null;
+                    if (token == null) {
+                        continue;
+                    }
+                }
+
+                Result invoices = call(stats, measureStart, LIST_INVOICES, get("/api/invoices?page=0&size=10", token));
+                Integer unpaidId = null;
+                if (invoices.ok()) {
+                    for (JsonNode invoice : invoices.json().path("content")) {
+                        String status = invoice.path("status").asText();
+                        if ("unpaid".equalsIgnoreCase(status) || "partial".equalsIgnoreCase(status)) {
+                            unpaidId = invoice.path("id").asInt();
+                            break;
+                        }
+                    }
+                }
+
+                if (unpaidId != null) {
+                    call(stats, measureStart, PAY, post("/api/payment/simulate", token,
+                            Map.of("invoiceId", unpaidId, "amount", 1000)));
+                }
+
+                LocalDate start = LocalDate.now().plusDays(1 + 2L * registrationWindow.getAndIncrement());
+                call(stats, measureStart, REGISTER, post("/api/registrations", token, Map.of(
+                        "residentId", account.residentId(),
+                        "houseId", account.houseId(),
+                        "type", "TAM_VANG",
+                        "startDate", start.toString(),
+                        "endDate", start.plusDays(1).toString(),
+                        "reason", "Load test")));
+            } catch (IOException e) {
+                // Lỗi kết nối đã được ghi nhận trong call(); sang vòng tiếp
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            iteration++;
+        }
+        return stats;
+    }
+
+    // --- HTTP helpers ---
+
+    private record Result(boolean ok, JsonNode json) {}
+
+    private Result call(Map<String, LatencyStats> stats, long measureStart, String endpoint, HttpRequest request)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            ok = response.statusCode() / 100 == 2;
+            JsonNode json = ok && response.body().length > 0 && response.body()[0] == '{'
+                    ? objectMapper.readTree(response.body())
+                    : objectMapper.missingNode();
+            return new Result(ok, json);
+        } finally {
+            // Chỉ ghi nhận sau giai đoạn khởi động (JIT, pool kết nối, cache)
+            if (start >= measureStart) {
+                stats.computeIfAbsent(endpoint, k -> new LatencyStats()).record((System.nanoTime() - start) / 1000, ok);
+            }
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String token, Map<String, Object> body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .header("User-Agent", "loadtest")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    // --- Báo cáo ---
+
+    private void report(Map<String, LatencyStats> stats) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-30s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        stats.forEach((endpoint, s) -> {
+            Map<String, Object> summary = s.summary(durationSeconds);
+            endpoints.put(endpoint, summary);
+            System.out.printf("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint,
+                    s.count(), s.errors(), summary.get("throughputPerSec"), summary.get("p50Ms"),
+                    summary.get("p95Ms"), summary.get("p99Ms"), summary.get("maxMs"));
+        });
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("timestamp", LocalDateTime.now().toString());
+        document.put("profile", profile);
+        document.put("javaVersion", Runtime.version().feature());
+        document.put("concurrency", concurrency);
+        document.put("warmupSeconds", warmupSeconds);
+        document.put("durationSeconds", durationSeconds);
+        document.put("scale", Map.of(
+                "buildings", scale.getBuildings(),
+                "floors", scale.getFloors(),
+                "apartmentsPerFloor", scale.getApartmentsPerFloor(),
+                "residentsPerApartment", scale.getResidentsPerApartment(),
+                "months", scale.getMonths()));
+        document.put("endpoints", endpoints);
+
+        Path dir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+        Files.createDirectories(dir);
+        Path file = dir.resolve("loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), document);
+        System.out.println("\nReport: " + file.toAbsolutePath());
+    }
+
+    private static SeedProperties scale() {
+        SeedProperties scale = new SeedProperties();
+        scale.setBuildings(intProperty("loadtest.buildings", 2));
+        scale.setFloors(intProperty("loadtest.floors", 20));
+        scale.setApartmentsPerFloor(intProperty("loadtest.apartments-per-floor", 10));
+        scale.setResidentsPerApartment(intProperty("loadtest.residents-per-apartment", 3));
+        scale.setMonths(intProperty("loadtest.months", 12));
+        return scale;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
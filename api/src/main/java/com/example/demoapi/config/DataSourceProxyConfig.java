@@ -0,0 +1,35 @@
+package com.example.demoapi.config;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Bọc DataSource bằng datasource-proxy để mọi QueryExecutionListener (bean) thấy từng câu lệnh JDBC
+ * kèm thời gian chạy - chi phí chỉ là vài lời gọi hàm, không log gì cả.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    // static: BeanPostProcessor phải được tạo trước các bean khác
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                    listeners.orderedStream().forEach(builder::listener);
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
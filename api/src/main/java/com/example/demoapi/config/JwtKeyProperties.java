@@ -0,0 +1,43 @@
+package com.example.demoapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Các khóa ký Access Token (xoay vòng khóa không làm văng phiên của ai):
+ * <pre>
+ * jwt.access-token.active-kid=2025-06
+ * jwt.access-token.keys[0].kid=2025-06
+ * jwt.access-token.keys[0].secret=...
+ * jwt.access-token.keys[1].kid=2025-01
+ * jwt.access-token.keys[1].secret=...
+ * jwt.access-token.keys[1].verify-until=2025-06-02T00:00:00Z   # bỏ hẳn sau khi token cũ hết hạn
+ * </pre>
+ * Quy trình: thêm khóa mới -> chuyển active-kid -> sau >= thời hạn access token thì xóa khóa cũ.
+ * Không cấu hình `keys` -> dùng `jwt.access-token.secret` như trước (kid "default").
+ * <p>
+ * Token cũ KHÔNG có kid (ký bằng jwt.access-token.secret trước khi có xoay vòng khóa):
+ * - chưa cấu hình `keys`: vẫn được chấp nhận (đến legacy-verify-until nếu có đặt),
+ * - đã cấu hình `keys`: chỉ chấp nhận khi đặt legacy-verify-until và chưa quá hạn đó; không đặt -> bị từ chối.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt.access-token")
+public class JwtKeyProperties {
+
+    private String activeKid;
+    private List<SigningKey> keys = new ArrayList<>();
+    private Instant legacyVerifyUntil; // Hạn chấp nhận token không có kid (xem ở trên)
+
+    @Data
+    public static class SigningKey {
+        private String kid;
+        private String secret;
+        private Instant verifyUntil; // null = còn dùng để xác thực vô thời hạn
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demoapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * DataSource của ứng dụng khi bật replica. Connection thật chỉ được lấy ở câu lệnh đầu tiên
+ * (LazyConnectionDataSourceProxy), lúc đó đã biết transaction có read-only hay không:
+ * - read-only (@Transactional(readOnly = true), findAll/findById của Spring Data) và replica còn theo kịp -> replica,
+ * - còn lại (ghi, hoặc replica trễ / lỗi) -> primary.
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadReplicaDataSource(HikariDataSource primary, HikariDataSource replica,
+                                 ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        ReadOnlyRouter router = new ReadOnlyRouter(lagMonitor, meterRegistry);
+        router.setTargetDataSources(Map.<Object, Object>of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        router.setDefaultTargetDataSource(primary);
+        router.afterPropertiesSet();
+        setReadOnlyDataSource(router);
+    }
+
+    @Override
+    public void close() {
+        lagMonitor.close();
+        replica.close();
+        primary.close();
+    }
+
+    // Chọn DB cho connection read-only, đếm số lần đi replica / quay về primary
+    private static final class ReadOnlyRouter extends AbstractRoutingDataSource {
+
+        private final ReplicaLagMonitor lagMonitor;
+        private final Counter toReplica;
+        private final Counter toPrimary;
+
+        ReadOnlyRouter(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+            this.lagMonitor = lagMonitor;
+            this.toReplica = readOnlyCounter(meterRegistry, Target.REPLICA);
+            this.toPrimary = readOnlyCounter(meterRegistry, Target.PRIMARY);
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (lagMonitor.isUsable()) {
+                toReplica.increment();
+                return Target.REPLICA;
+            }
+            toPrimary.increment();
+            return Target.PRIMARY;
+        }
+
+        private static Counter readOnlyCounter(MeterRegistry meterRegistry, Target target) {
+            return Counter.builder("app.datasource.read-only.connections")
+                    .description("Số connection read-only theo DB được chọn")
+                    .tag("target", target.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demoapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Bật bằng app.datasource.replica.enabled=true: thay DataSource mặc định của Spring Boot bằng ReadReplicaDataSource
+ * (transaction read-only -> replica, còn lại -> primary).
+ * Hai pool KHÔNG đăng ký thành bean riêng, để DataSourceProxyConfig chỉ bọc 1 DataSource (không đếm trùng câu SQL).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                 Environment environment, MeterRegistry meterRegistry) {
+        if (!StringUtils.hasText(replicaProperties.getUrl())) {
+            throw new IllegalStateException("Thiếu app.datasource.replica.url (hoặc đặt app.datasource.replica.enabled=false)");
+        }
+
+        // 1. Pool primary: giữ nguyên cấu hình spring.datasource.* và spring.datasource.hikari.*
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        // 2. Pool replica (chỉ đọc). Thiếu username/password -> dùng của primary
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaProperties.getUrl());
+        replica.setUsername(StringUtils.hasText(replicaProperties.getUsername())
+                ? replicaProperties.getUsername() : dataSourceProperties.determineUsername());
+        replica.setPassword(replicaProperties.getPassword() != null
+                ? replicaProperties.getPassword() : dataSourceProperties.determinePassword());
+        replica.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replica.setConnectionTimeout(primary.getConnectionTimeout());
+        replica.setReadOnly(true);
+        // Spring Boot chỉ tự gắn metrics cho pool tìm thấy qua DataSource chính (primary) -> tự gắn cho replica
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        // 3. Theo dõi độ trễ replica
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica,
+                replicaProperties.getMaxLagMs(), replicaProperties.getLagCheckIntervalMs());
+        Gauge.builder("app.datasource.replica.lag", lagMonitor, ReplicaLagMonitor::lagMs)
+                .description("Độ trễ replica (ms), -1 = không đo được")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("app.datasource.replica.usable", lagMonitor, m -> m.isUsable() ? 1 : 0)
+                .description("1 = đang đọc read-only từ replica, 0 = đang đọc từ primary")
+                .register(meterRegistry);
+
+        return new ReadReplicaDataSource(primary, replica, lagMonitor, meterRegistry);
+    }
+}
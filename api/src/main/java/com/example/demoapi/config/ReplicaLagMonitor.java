@@ -0,0 +1,104 @@
+package com.example.demoapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đo độ trễ của replica định kỳ trên 1 luồng nền riêng.
+ * Replica bị coi là KHÔNG dùng được khi trễ vượt ngưỡng, không truy vấn được, hoặc standby không còn nhận WAL
+ * (WAL receiver không ở trạng thái streaming) -> transaction read-only đọc từ primary.
+ * User kết nối replica cần quyền pg_read_all_stats (hoặc pg_monitor) để đọc được pg_stat_wal_receiver.status,
+ * thiếu quyền -> luôn bị coi là không streaming.
+ * DB thường (không phải standby, vd. DB thứ 2 dựng thử ở máy local) luôn có độ trễ 0.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    // NULL = standby mất kết nối tới primary: receive LSN đứng yên, replay đuổi kịp nó nên so sánh LSN sẽ báo trễ 0 giả.
+    // Standby đang streaming và đã replay hết WAL nhận được -> trễ 0 (tránh báo trễ giả khi primary không có ghi mới)
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final DataSource replica;
+    private final long maxLagMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lagMs = -1; // -1 = chưa đo được
+    private volatile boolean usable;
+    private boolean checked; // chỉ luồng monitor đọc/ghi
+
+    public ReplicaLagMonitor(DataSource replica, long maxLagMs, long intervalMs) {
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        // Lần đo đầu chạy ngay; trước khi đo xong mọi truy vấn đọc vẫn vào primary
+        scheduler.scheduleWithFixedDelay(this::check, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    public long lagMs() {
+        return lagMs;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // --- Các hàm private ---
+
+    private void check() {
+        boolean wasUsable = usable;
+        boolean streaming;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                double lag = rs.getDouble(1);
+                streaming = !rs.wasNull();
+                lagMs = streaming ? (long) lag : -1;
+            }
+            usable = streaming && lagMs <= maxLagMs;
+        } catch (SQLException | RuntimeException e) {
+            lagMs = -1;
+            usable = false;
+            if (wasUsable || !checked) {
+                log.warn("Không kiểm tra được độ trễ replica, đọc từ primary: {}", e.getMessage());
+            }
+            checked = true;
+            return;
+        }
+
+        if (usable && (!wasUsable || !checked)) {
+            log.info("Replica sẵn sàng (trễ {} ms), bật đọc read-only từ replica", lagMs);
+        } else if (!streaming && (wasUsable || !checked)) {
+            log.warn("Replica không nhận WAL từ primary (WAL receiver không streaming), đọc từ primary");
+        } else if (!usable && (wasUsable || !checked)) {
+            log.warn("Replica trễ {} ms (ngưỡng {} ms), đọc từ primary", lagMs, maxLagMs);
+        }
+        checked = true;
+    }
+}
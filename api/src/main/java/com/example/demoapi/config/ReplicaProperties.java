@@ -0,0 +1,29 @@
+package com.example.demoapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cấu hình DB replica cho các transaction read-only (xem ReplicaDataSourceConfig):
+ * <pre>
+ * app.datasource.replica.enabled=true
+ * app.datasource.replica.url=jdbc:postgresql://replica-host:5432/apartment_db
+ * app.datasource.replica.username=...      # bỏ trống -> dùng của spring.datasource
+ * app.datasource.replica.password=...
+ * app.datasource.replica.max-lag-ms=5000   # trễ hơn ngưỡng này -> đọc từ primary
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    private long maxLagMs = 5000;
+    private long lagCheckIntervalMs = 2000;
+}
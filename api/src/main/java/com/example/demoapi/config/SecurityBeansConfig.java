@@ -1,7 +1,9 @@
 package com.example.demoapi.config;
 
+import com.example.demoapi.security.BoundedPasswordEncoder;
 import com.example.demoapi.security.MyUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,21 +11,45 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @RequiredArgsConstructor
 public class SecurityBeansConfig {
     private final MyUserDetailsService userDetailsService;
 
-//    @Bean
-//    public PasswordEncoder passwordEncoder() {
-//        return new BCryptPasswordEncoder();
-//    }
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance();
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.security.password-hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.timeout-ms:5000}")
+    private long hashingTimeoutMs;
+
+    // Mật khẩu mới: "{bcrypt}...". Mật khẩu thô cũ được db/patches.sql gắn tiền tố "{noop}" rồi được
+    // LegacyPasswordMigrator băm lại sau khi khởi động (hoặc sớm hơn: lần đăng nhập thành công, MyUserDetailsService.updatePassword).
+    // Không còn đối chiếu thô mặc định: mật khẩu lưu không có tiền tố hợp lệ sẽ bị từ chối (IllegalArgumentException).
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("noop", NoOpPasswordEncoder.getInstance());
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", encoders);
+
+        int threads = hashingThreads > 0
+                ? hashingThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, threads, hashingQueueCapacity, hashingTimeoutMs);
     }
 
     @Bean
@@ -36,6 +62,7 @@ public class SecurityBeansConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService); // Tự nâng cấp hash khi đăng nhập
         return authProvider;
     }
-}
\ No newline at end of file
+}
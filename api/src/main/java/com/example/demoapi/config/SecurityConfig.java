@@ -3,6 +3,8 @@ package com.example.demoapi.config; // hoặc .security
 import java.util.Arrays;
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -44,6 +46,11 @@ public class SecurityConfig {
                 // --- QUAN TRỌNG NHẤT: CHO PHÉP METHOD OPTIONS ---
                 // Dòng này giúp Preflight Request đi qua mà không cần Token
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // Health check cho load balancer; các endpoint actuator khác (prometheus...) chỉ Admin
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
+                // Async dispatch (SSE) chỉ là phần tiếp theo của request đã được xác thực
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Các request khác phải đăng nhập
                 .anyRequest().authenticated()
                 )
@@ -0,0 +1,117 @@
+package com.example.demoapi.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chỉ bật khi chạy virtual threads (spring.threads.virtual.enabled=true, Java 21+).
+ * Theo dõi sự kiện JFR jdk.VirtualThreadPinned: virtual thread bị "ghim" vào carrier thread
+ * (thường do block I/O bên trong synchronized - VD: driver JDBC / connection pool cũ).
+ * Gom theo frame đầu tiên thuộc code ứng dụng / thư viện để biết chỗ cần sửa, log stack trace lần đầu gặp.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"spring.threads.virtual.enabled", "app.virtual-threads.pin-monitor.enabled"}, havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${app.virtual-threads.pin-monitor.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled=true nhưng đang chạy Java {}: virtual threads không có hiệu lực",
+                    Runtime.version().feature());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::record);
+        stream.startAsync();
+        log.info("Đang theo dõi virtual thread bị ghim (ngưỡng {} ms)", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    // Số lần bị ghim theo vị trí (class.method:line), nhiều nhất trước
+    public Map<String, Long> pinnedSites() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        pinnedBySite.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(e -> result.put(e.getKey(), e.getValue().sum()));
+        return result;
+    }
+
+    // --- Các hàm private ---
+
+    private void record(RecordedEvent event) {
+        String site = siteOf(event.getStackTrace());
+        LongAdder counter = pinnedBySite.computeIfAbsent(site, k -> new LongAdder());
+        boolean first = counter.sum() == 0;
+        counter.increment();
+
+        if (first) {
+            log.warn("Virtual thread bị ghim {} ms tại {}\n{}", event.getDuration().toMillis(), site,
+                    format(event.getStackTrace()));
+        }
+    }
+
+    // Frame đầu tiên không thuộc JDK
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) {
+                continue;
+            }
+            return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+        }
+        return "jdk";
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        int limit = Math.min(stackTrace.getFrames().size(), 30);
+        for (int i = 0; i < limit; i++) {
+            RecordedFrame frame = stackTrace.getFrames().get(i);
+            sb.append("    at ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demoapi.controller;
+
+import com.example.demoapi.event.AdminEventHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/admin/events")
+@RequiredArgsConstructor
+public class AdminEventController {
+
+    private final AdminEventHub adminEventHub;
+
+    // Endpoint: GET /api/admin/events (text/event-stream)
+    // Sự kiện: registration-created, payment-completed, resync (client cần tải lại danh sách)
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public SseEmitter stream() {
+        return adminEventHub.subscribe();
+    }
+}
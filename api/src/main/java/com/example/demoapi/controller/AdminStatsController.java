@@ -0,0 +1,80 @@
+package com.example.demoapi.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demoapi.config.VirtualThreadPinningMonitor;
+import com.example.demoapi.dto.response.CacheRegionResponse;
+import com.example.demoapi.dto.response.SlowQueryResponse;
+import com.example.demoapi.metrics.SecondLevelCacheStats;
+import com.example.demoapi.metrics.SlowQueryRecorder;
+import com.example.demoapi.security.BoundedPasswordEncoder;
+
+import lombok.RequiredArgsConstructor;
+
+// Thông số vận hành cho Admin
+@RestController
+@RequestMapping("/api/admin/stats")
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@RequiredArgsConstructor
+public class AdminStatsController {
+
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final SlowQueryRecorder slowQueryRecorder;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+
+    // Pool băm mật khẩu: số luồng, hàng đợi, số lần từ chối, thời gian chờ / băm trung bình
+    @GetMapping("/password-hashing")
+    public ResponseEntity<Map<String, Object>> passwordHashing() {
+        return ResponseEntity.ok(passwordEncoder.stats());
+    }
+
+    // Các vị trí làm virtual thread bị ghim (rỗng nếu không chạy virtual threads)
+    @GetMapping("/virtual-thread-pinning")
+    public ResponseEntity<Map<String, Long>> virtualThreadPinning() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        return ResponseEntity.ok(monitor != null ? monitor.pinnedSites() : Map.of());
+    }
+
+    // Top câu SQL chậm (gom theo shape + kiểu tham số), sắp theo tổng thời gian
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryResponse>> slowQueries() {
+        return ResponseEntity.ok(slowQueryRecorder.top());
+    }
+
+    // Kế hoạch thực thi (EXPLAIN, không ANALYZE) của lần chậm gần nhất
+    @PostMapping("/slow-queries/{id}/explain")
+    public ResponseEntity<List<String>> explainSlowQuery(@PathVariable long id) {
+        return ResponseEntity.ok(slowQueryRecorder.explain(id));
+    }
+
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<?> resetSlowQueries() {
+        slowQueryRecorder.reset();
+        return ResponseEntity.ok("Đã xóa thống kê câu SQL chậm");
+    }
+
+    // Second-level cache: hit / miss / put theo vùng (apartment, fee, userAccount, query cache)
+    @GetMapping("/cache")
+    public ResponseEntity<List<CacheRegionResponse>> secondLevelCache() {
+        return ResponseEntity.ok(secondLevelCacheStats.regions());
+    }
+
+    // Xóa dữ liệu cache (khi sửa tay dưới DB, không qua ứng dụng)
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> evictSecondLevelCache() {
+        secondLevelCacheStats.evictAll();
+        return ResponseEntity.ok("Đã xóa second-level cache");
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,6 +17,7 @@ import com.example.demoapi.dto.LoginRequest;
 import com.example.demoapi.dto.LoginResponse;
 import com.example.demoapi.dto.RefreshTokenResponse;
 import com.example.demoapi.dto.request.RegisterRequest;
+import com.example.demoapi.security.LoginRateLimiter;
 import com.example.demoapi.service.AuthenticationService;
 
 import jakarta.servlet.http.Cookie;
@@ -29,15 +31,24 @@ import lombok.RequiredArgsConstructor;
 public class AuthController {
 
     private final AuthenticationService authenticationService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @Value("${jwt.response-cookie.secure}")
     private boolean secureCookie;
 
     // --- LOGIN ---
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest, HttpServletResponse response) {
-        // Gọi Service
-        AuthenticationService.AuthResult result = authenticationService.login(loginRequest);
+    public ResponseEntity<LoginResponse> login(
+            @RequestBody LoginRequest loginRequest,
+            @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        // Chặn dò mật khẩu hàng loạt trước khi chạm tới DB / băm mật khẩu (429)
+        loginRateLimiter.check(request.getRemoteAddr(), loginRequest.email());
+
+        // Gọi Service (mỗi thiết bị 1 phiên riêng)
+        AuthenticationService.AuthResult result = authenticationService.login(loginRequest, userAgent);
 
         // Set Cookie
         setRefreshTokenCookie(response, result.getRefreshToken(), 7 * 24 * 60 * 60); // 7 days
@@ -75,7 +86,9 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
+    public ResponseEntity<?> register(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.check(httpRequest.getRemoteAddr(), request.getEmail());
+
         try {
             authenticationService.register(request);
             return ResponseEntity.status(HttpStatus.CREATED).body("Đăng ký tài khoản thành công!");
@@ -2,13 +2,14 @@ package com.example.demoapi.controller;
 
 import com.example.demoapi.dto.request.FeeRequest;
 import com.example.demoapi.model.Fee;
-import com.example.demoapi.repository.FeeRepository;
 import com.example.demoapi.service.FeeService;
+import com.example.demoapi.util.ETags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,7 +19,6 @@ import java.util.List;
 public class FeeController {
 
     private final FeeService feeService;
-    private final FeeRepository feeRepository;
     // Endpoint: POST /api/fees
     // Chỉ Admin mới được tạo phí
     @PostMapping
@@ -32,10 +32,10 @@ public class FeeController {
         }
     }
 
-    // API xem danh sách phí để test
+    // API xem danh sách phí để test (If-None-Match khớp -> 304)
     @GetMapping
-    public ResponseEntity<List<Fee>> getAllFees() {
-         return ResponseEntity.ok(feeRepository.findAll());
+    public ResponseEntity<List<Fee>> getAllFees(WebRequest webRequest) {
+        return ETags.conditional(webRequest, feeService.getFeesEtag(), feeService::getAllFees);
     }
 
     // Sửa phí (Admin)
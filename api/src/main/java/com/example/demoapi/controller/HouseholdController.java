@@ -5,9 +5,10 @@ import com.example.demoapi.dto.request.MemberRequest;
 import com.example.demoapi.dto.request.UpdateMemberRequest;
 import com.example.demoapi.dto.response.HouseholdResponse;
 import com.example.demoapi.dto.response.ResidentResponse;
-import com.example.demoapi.model.UserAccount;
 import com.example.demoapi.repository.UserAccountRepository;
 import com.example.demoapi.service.HouseholdService;
+import com.example.demoapi.util.ETags;
+import com.example.demoapi.util.SparseFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -27,19 +29,23 @@ public class HouseholdController {
     private final HouseholdService householdService;
     private final UserAccountRepository userAccountRepository;
 
-    // Endpoint: GET /api/households?search=...
+    // Endpoint: GET /api/households?search=...&fields=roomNumber,ownerName (fields: chỉ trả các trường này + id)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<HouseholdResponse>> getHouseholds(
-            @RequestParam(required = false) String search
+    public ResponseEntity<List<?>> getHouseholds(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields
     ) {
+        if (SparseFields.requested(fields)) {
+            return ResponseEntity.ok(householdService.getHouseholds(search, fields));
+        }
         List<HouseholdResponse> result = householdService.getHouseholds(search);
         return ResponseEntity.ok(result);
     }
 
     // Endpoint: GET /api/households/{id}
     @GetMapping("/{id}")
-    public ResponseEntity<HouseholdResponse> getHouseholdDetail(@PathVariable Integer id) {
+    public ResponseEntity<HouseholdResponse> getHouseholdDetail(@PathVariable Integer id, WebRequest webRequest) {
 
         // 1. Lấy thông tin người đang đăng nhập từ Security Context
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -51,21 +57,15 @@ public class HouseholdController {
 
         if (isAdmin) {
             // A. Nếu là ADMIN: Cho phép xem mọi ID
-            return ResponseEntity.ok(householdService.getHouseholdById(id));
+            return householdDetail(id, webRequest);
         } else {
             // B. Nếu là RESIDENT: Phải kiểm tra xem ID này có phải nhà của họ không
-            UserAccount currentUser = userAccountRepository.findByEmail(currentEmail)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-
             // Lấy houseId của user hiện tại
-            Integer myHouseId = null;
-            if (currentUser.getResident() != null && currentUser.getResident().getApartment() != null) {
-                myHouseId = currentUser.getResident().getApartment().getHouseid();
-            }
+            Integer myHouseId = userAccountRepository.findHouseIdByEmail(currentEmail).orElse(null);
 
             // So sánh ID yêu cầu (id) vs ID nhà mình (myHouseId)
             if (myHouseId != null && myHouseId.equals(id)) {
-                return ResponseEntity.ok(householdService.getHouseholdById(id));
+                return householdDetail(id, webRequest);
             } else {
                 // Nếu không khớp -> Chặn (403 Forbidden)
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Bạn không có quyền xem thông tin hộ khác!");
@@ -102,7 +102,7 @@ public class HouseholdController {
     }
 
     @GetMapping("/{id}/members")
-    public ResponseEntity<List<ResidentResponse>> getHouseholdMembers(@PathVariable Integer id) {
+    public ResponseEntity<List<ResidentResponse>> getHouseholdMembers(@PathVariable Integer id, WebRequest webRequest) {
 
         // 1. Lấy thông tin người đang đăng nhập
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -114,21 +114,15 @@ public class HouseholdController {
 
         if (isAdmin) {
             // Admin được xem hết
-            return ResponseEntity.ok(householdService.getHouseholdMembers(id));
+            return householdMembers(id, webRequest);
         } else {
             // 3. Nếu là Resident: Kiểm tra xem có đúng nhà mình không
-            UserAccount currentUser = userAccountRepository.findByEmail(currentEmail)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
-
             // Lấy ID nhà của user hiện tại
-            Integer myHouseId = null;
-            if (currentUser.getResident() != null && currentUser.getResident().getApartment() != null) {
-                myHouseId = currentUser.getResident().getApartment().getHouseid();
-            }
+            Integer myHouseId = userAccountRepository.findHouseIdByEmail(currentEmail).orElse(null);
 
             // So sánh
             if (myHouseId != null && myHouseId.equals(id)) {
-                return ResponseEntity.ok(householdService.getHouseholdMembers(id));
+                return householdMembers(id, webRequest);
             } else {
                 // Nếu id trên URL khác id nhà mình -> CHẶN
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Bạn chỉ được xem thành viên của hộ gia đình mình!");
@@ -155,4 +149,14 @@ public class HouseholdController {
         ResidentResponse response = householdService.updateMember(memberId, request);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // --- Conditional GET (ETag): chỉ gọi sau khi đã kiểm tra quyền, để 304 không lộ thông tin hộ khác ---
+
+    private ResponseEntity<HouseholdResponse> householdDetail(Integer id, WebRequest webRequest) {
+        return ETags.conditional(webRequest, householdService.getHouseholdEtag(id), () -> householdService.getHouseholdById(id));
+    }
+
+    private ResponseEntity<List<ResidentResponse>> householdMembers(Integer id, WebRequest webRequest) {
+        return ETags.conditional(webRequest, householdService.getHouseholdMembersEtag(id), () -> householdService.getHouseholdMembers(id));
+    }
+}
@@ -2,10 +2,11 @@ package com.example.demoapi.controller;
 
 import com.example.demoapi.dto.request.CreateInvoiceRequest;
 import com.example.demoapi.dto.response.InvoiceResponse;
-import com.example.demoapi.model.UserAccount;
 import com.example.demoapi.repository.InvoiceRepository;
 import com.example.demoapi.repository.UserAccountRepository;
 import com.example.demoapi.service.InvoiceService;
+import com.example.demoapi.util.ETags;
+import com.example.demoapi.util.SparseFields;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,9 +18,11 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/invoices")
@@ -37,10 +40,10 @@ public class InvoiceController {
         return ResponseEntity.ok(invoiceService.createInvoice(request));
     }
 
-    // 2. Xem chi tiết hóa đơn (Ai cũng xem được nếu có ID - Cần bảo mật thêm sau này)
+    // 2. Xem chi tiết hóa đơn (Ai cũng xem được nếu có ID - Cần bảo mật thêm sau này). If-None-Match khớp -> 304
     @GetMapping("/{id}")
-    public ResponseEntity<InvoiceResponse> getInvoice(@PathVariable Integer id) {
-        return ResponseEntity.ok(invoiceService.getInvoiceById(id));
+    public ResponseEntity<InvoiceResponse> getInvoice(@PathVariable Integer id, WebRequest webRequest) {
+        return ETags.conditional(webRequest, invoiceService.getInvoiceEtag(id), () -> invoiceService.getInvoiceById(id));
     }
 
 
@@ -85,14 +88,15 @@ public class InvoiceController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<InvoiceResponse>> getAllInvoices(
+    public ResponseEntity<Page<?>> getAllInvoices(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String keyword, // Tìm theo số phòng
             @RequestParam(required = false) String status,  // unpaid, paid
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year,
-            @RequestParam(required = false) Integer houseId // Admin có thể lọc theo nhà cụ thể
+            @RequestParam(required = false) Integer houseId, // Admin có thể lọc theo nhà cụ thể
+            @RequestParam(required = false) String fields   // VD: id,roomNumber,totalAmount,status -> chỉ trả các trường này
     ) {
         // 1. Lấy User hiện tại
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -103,21 +107,20 @@ public class InvoiceController {
         // 2. Logic phân quyền dữ liệu
         if (!isAdmin) {
             // Nếu là Cư dân -> Tìm nhà của họ và ÉP BUỘC lọc theo nhà đó
-            String email = auth.getName();
-            UserAccount user = userAccountRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            if (user.getResident() == null || user.getResident().getApartment() == null) {
+            // Gán cứng ID nhà của user đang login (chỉ lấy ID, không load tài khoản / cư dân / căn hộ)
+            Optional<Integer> ownHouseId = userAccountRepository.findHouseIdByEmail(auth.getName());
+            if (ownHouseId.isEmpty()) {
                 // Trường hợp user chưa được gán vào căn hộ nào -> Trả về danh sách rỗng
                 return ResponseEntity.ok(Page.empty());
             }
-
-            // Gán cứng ID nhà của user đang login
-            filterHouseId = user.getResident().getApartment().getHouseid();
+            filterHouseId = ownHouseId.get();
         }
 
         // 3. Gọi Service
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "year", "month")); // Mới nhất lên đầu
+        if (SparseFields.requested(fields)) {
+            return ResponseEntity.ok(invoiceService.getAllInvoices(filterHouseId, month, year, status, keyword, pageable, fields));
+        }
         Page<InvoiceResponse> result = invoiceService.getAllInvoices(filterHouseId, month, year, status, keyword, pageable);
 
         return ResponseEntity.ok(result);
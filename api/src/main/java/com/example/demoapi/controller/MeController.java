@@ -0,0 +1,28 @@
+package com.example.demoapi.controller;
+
+import com.example.demoapi.dto.response.HomeResponse;
+import com.example.demoapi.service.HomeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/me") // Dữ liệu của chính người đang đăng nhập
+@RequiredArgsConstructor
+public class MeController {
+
+    private final HomeService homeService;
+
+    // Endpoint: GET /api/me/home?size=10
+    // Dashboard cư dân: hộ khẩu + thành viên + hóa đơn + đơn đăng ký trong 1 lần gọi (thay cho ~5 request riêng lẻ)
+    @GetMapping("/home")
+    public ResponseEntity<HomeResponse> getHome(@RequestParam(defaultValue = "10") int size) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return ResponseEntity.ok(homeService.getHome(authentication.getName(), size));
+    }
+}
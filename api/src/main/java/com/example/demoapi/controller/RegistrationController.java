@@ -1,8 +1,13 @@
 package com.example.demoapi.controller;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -18,14 +23,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.demoapi.dto.request.ApprovalRequest;
+import com.example.demoapi.dto.request.BulkApprovalRequest;
 import com.example.demoapi.dto.request.RegistrationRequest;
+import com.example.demoapi.dto.response.BulkApprovalResult;
 import com.example.demoapi.dto.response.RegistrationResponse;
 import com.example.demoapi.model.RegistrationStatus;
 import com.example.demoapi.model.RegistrationType;
-import com.example.demoapi.model.UserAccount;
 import com.example.demoapi.repository.UserAccountRepository;
 import com.example.demoapi.service.RegistrationService;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -59,6 +66,13 @@ public class RegistrationController {
         }
     }
 
+    // Duyệt / từ chối nhiều đơn cùng lúc (Chỉ Admin) - trả về kết quả theo từng ID
+    @PostMapping("/approvals")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<BulkApprovalResult>> approveRequests(@Valid @RequestBody BulkApprovalRequest request) {
+        return ResponseEntity.ok(registrationService.approveRequests(request.getDecisions()));
+    }
+
     // Lấy danh sách (Có thể filter theo param)
     @GetMapping
     public ResponseEntity<Page<RegistrationResponse>> getList(
@@ -77,16 +91,13 @@ public class RegistrationController {
 
         // 2. Phân quyền: Nếu không phải Admin -> Bắt buộc chỉ xem nhà mình
         if (!isAdmin) {
-            String email = auth.getName();
-            UserAccount user = userAccountRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            if (user.getResident() == null || user.getResident().getApartment() == null) {
+            Optional<Integer> ownHouseId = userAccountRepository.findHouseIdByEmail(auth.getName());
+            if (ownHouseId.isEmpty()) {
                 return ResponseEntity.ok(Page.empty());
             }
 
             // Ép buộc filter theo ID nhà của user
-            filterHouseId = user.getResident().getApartment().getHouseid();
+            filterHouseId = ownHouseId.get();
         }
 
         // 3. Gọi Service
@@ -98,6 +109,18 @@ public class RegistrationController {
         return ResponseEntity.ok(result);
     }
 
+    // Ai đang tạm vắng / tạm trú vào ngày `date` (Admin) - VD: /api/registrations/active?type=TAM_VANG&building=A&date=2025-12-31
+    @GetMapping("/active")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<RegistrationResponse>> getActive(
+            @RequestParam(required = false) String building,
+            @RequestParam(required = false) RegistrationType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        LocalDate onDate = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(registrationService.getActiveOn(building, type, onDate));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> updateRequest(@PathVariable Integer id, @RequestBody RegistrationRequest request) {
         try {
@@ -0,0 +1,93 @@
+package com.example.demoapi.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demoapi.dto.request.RequestTransitionRequest;
+import com.example.demoapi.dto.request.TicketRequest;
+import com.example.demoapi.dto.response.BulkTransitionResult;
+import com.example.demoapi.dto.response.CursorPage;
+import com.example.demoapi.dto.response.RequestResponse;
+import com.example.demoapi.model.RequestStatus;
+import com.example.demoapi.service.RequestService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/requests")
+@RequiredArgsConstructor
+public class RequestController {
+
+    private final RequestService requestService;
+
+    // Gửi yêu cầu / phản ánh (Cư dân, hoặc Admin gửi thay)
+    @PostMapping
+    public ResponseEntity<RequestResponse> createRequest(@Valid @RequestBody TicketRequest request) {
+        return ResponseEntity.ok(requestService.createRequest(request));
+    }
+
+    // Danh sách (phân trang keyset) - VD: /api/requests?status=PENDING&size=20&cursor=10234
+    // Trang tiếp theo: truyền cursor = nextCursor của trang trước
+    @GetMapping
+    public ResponseEntity<CursorPage<RequestResponse>> getList(
+            @RequestParam(required = false) RequestStatus status,
+            @RequestParam(required = false) Integer houseId, // Admin lọc theo căn hộ
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(requestService.getRequests(status, houseId, cursor, size));
+    }
+
+    // Số yêu cầu chưa xử lý theo căn hộ (Admin): { houseId: count }
+    @GetMapping("/unresolved-counts")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<Map<Integer, Integer>> getUnresolvedCounts() {
+        return ResponseEntity.ok(requestService.getUnresolvedCounts());
+    }
+
+    // Số yêu cầu chưa xử lý của 1 căn hộ (Cư dân: luôn là căn hộ của mình)
+    @GetMapping("/unresolved-count")
+    public ResponseEntity<Map<String, Integer>> getUnresolvedCount(@RequestParam(required = false) Integer houseId) {
+        return ResponseEntity.ok(Map.of("count", requestService.getUnresolvedCount(houseId)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RequestResponse> getRequest(@PathVariable Integer id) {
+        return ResponseEntity.ok(requestService.getRequest(id));
+    }
+
+    // Xử lý 1 yêu cầu (Chỉ Admin)
+    @PutMapping("/{id}/status")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<RequestResponse> transition(
+            @PathVariable Integer id,
+            @Valid @RequestBody RequestTransitionRequest request
+    ) {
+        return ResponseEntity.ok(requestService.transition(id, request));
+    }
+
+    // Xử lý hàng loạt (Chỉ Admin)
+    @PostMapping("/status")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<BulkTransitionResult> transitionAll(@Valid @RequestBody RequestTransitionRequest.Bulk request) {
+        return ResponseEntity.ok(requestService.transitionAll(request));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteRequest(@PathVariable Integer id) {
+        requestService.deleteRequest(id);
+        return ResponseEntity.ok("Đã xóa yêu cầu thành công.");
+    }
+}
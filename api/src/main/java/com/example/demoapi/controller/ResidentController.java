@@ -2,6 +2,7 @@ package com.example.demoapi.controller;
 
 import com.example.demoapi.dto.response.ResidentResponse;
 import com.example.demoapi.service.HouseholdService;
+import com.example.demoapi.util.SparseFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -19,20 +20,25 @@ public class ResidentController {
     private final HouseholdService householdService; // Hoặc ResidentService nếu bạn đã tách
 
     // Endpoint: GET /api/residents
-    // Params: ?page=0&size=10&search=Nguyen
+    // Params: ?page=0&size=10&search=Nguyen&fields=name,phoneNumber,roomNumber (fields: chỉ trả các trường này + id)
     @GetMapping
     @PreAuthorize("hasAuthority('ROLE_ADMIN')") // Chỉ Admin được xem danh sách tổng
-    public ResponseEntity<Page<ResidentResponse>> getAllResidents(
+    public ResponseEntity<Page<?>> getAllResidents(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "residentid") String sortBy,
-            @RequestParam(defaultValue = "desc") String order
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(required = false) String fields
     ) {
         // Tạo đối tượng Pageable (Spring Data)
         Sort.Direction direction = order.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
+        if (SparseFields.requested(fields)) {
+            return ResponseEntity.ok(householdService.getAllResidents(search, pageable, fields));
+        }
+
         Page<ResidentResponse> result = householdService.getAllResidents(search, pageable);
         return ResponseEntity.ok(result);
     }
@@ -0,0 +1,5 @@
+package com.example.demoapi.dto;
+
+// Số lượng theo căn hộ (kết quả GROUP BY)
+public record HouseCount(Integer houseId, Long count) {
+}
@@ -0,0 +1,19 @@
+package com.example.demoapi.dto;
+
+import com.example.demoapi.model.RegistrationStatus;
+import com.example.demoapi.model.RegistrationType;
+
+import java.time.LocalDate;
+
+// Bản rút gọn của TemporaryRegistration (chỉ các cột cần cho chỉ mục khoảng thời gian)
+public record RegistrationPeriod(
+        Integer id,
+        Integer residentId,
+        Integer houseId,
+        String building,
+        RegistrationType type,
+        RegistrationStatus status,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,7 @@
+package com.example.demoapi.dto;
+
+import com.example.demoapi.model.RequestStatus;
+
+// Bản rút gọn của Request: chỉ các cột cần để kiểm tra quyền / chuyển trạng thái
+public record RequestRef(Integer id, RequestStatus status, Integer houseId) {
+}
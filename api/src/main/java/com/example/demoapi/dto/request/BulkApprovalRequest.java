@@ -0,0 +1,28 @@
+package com.example.demoapi.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkApprovalRequest {
+
+    @NotEmpty(message = "Danh sách đơn cần duyệt không được để trống")
+    @Size(max = 1000, message = "Mỗi lần chỉ được xử lý tối đa 1000 đơn")
+    private List<@Valid Decision> decisions;
+
+    @Data
+    public static class Decision {
+        @NotNull(message = "Thiếu ID đơn đăng ký")
+        private Integer id;
+
+        @NotNull(message = "Phải xác định là Duyệt (true) hay Từ chối (false)")
+        private Boolean isApproved;
+
+        private String adminNote; // Lý do từ chối hoặc ghi chú thêm
+    }
+}
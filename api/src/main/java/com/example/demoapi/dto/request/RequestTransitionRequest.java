@@ -0,0 +1,31 @@
+package com.example.demoapi.dto.request;
+
+import com.example.demoapi.model.RequestStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+// Admin xử lý yêu cầu: 1 yêu cầu (ids bỏ trống, ID lấy từ URL) hoặc hàng loạt
+@Data
+public class RequestTransitionRequest {
+
+    @NotNull(message = "Phải chọn trạng thái mới (APPROVED / REJECTED)")
+    private RequestStatus status;
+
+    private String adminResponse; // Lý do từ chối hoặc ghi chú của Admin
+
+    @Data
+    public static class Bulk {
+        @NotEmpty(message = "Danh sách yêu cầu không được để trống")
+        @Size(max = 1000, message = "Mỗi lần chỉ được xử lý tối đa 1000 yêu cầu")
+        private List<@NotNull Integer> ids;
+
+        @NotNull(message = "Phải chọn trạng thái mới (APPROVED / REJECTED)")
+        private RequestStatus status;
+
+        private String adminResponse;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demoapi.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+// Cư dân gửi yêu cầu / phản ánh
+@Data
+public class TicketRequest {
+
+    @NotBlank(message = "Tiêu đề không được để trống")
+    @Size(max = 255, message = "Tiêu đề tối đa 255 ký tự")
+    private String title;
+
+    private String content;
+
+    private Integer residentId; // Chỉ Admin dùng (gửi thay cho cư dân); cư dân bỏ trống
+}
@@ -0,0 +1,14 @@
+package com.example.demoapi.dto.response;
+
+import com.example.demoapi.model.RegistrationStatus;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkApprovalResult {
+    private Integer id;
+    private boolean success;
+    private RegistrationStatus status; // Trạng thái sau khi xử lý (null nếu thất bại)
+    private String message;            // Lý do thất bại / thông báo
+}
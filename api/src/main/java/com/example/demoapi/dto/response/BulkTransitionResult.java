@@ -0,0 +1,15 @@
+package com.example.demoapi.dto.response;
+
+import com.example.demoapi.model.RequestStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkTransitionResult {
+    private RequestStatus status;      // Trạng thái mới
+    private List<Integer> updatedIds;  // Các yêu cầu đã chuyển trạng thái
+    private List<Integer> skippedIds;  // Không tồn tại hoặc đã được xử lý trước đó
+}
@@ -0,0 +1,12 @@
+package com.example.demoapi.dto.response;
+
+// Thống kê 1 vùng second-level cache của Hibernate (tính từ lúc khởi động)
+public record CacheRegionResponse(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        double hitRatio,       // hits / (hits + misses), 0 nếu chưa có lượt đọc nào
+        long elementsInMemory  // -1 nếu provider không báo
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.demoapi.dto.response;
+
+import java.util.List;
+
+/**
+ * Trang kết quả phân trang keyset (không dùng OFFSET, không COUNT(*)).
+ * Trang tiếp theo: gọi lại API với cursor = nextCursor (null nghĩa là đã hết dữ liệu).
+ */
+public record CursorPage<T>(List<T> items, Integer nextCursor, boolean hasMore) {
+}
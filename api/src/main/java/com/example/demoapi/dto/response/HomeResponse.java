@@ -0,0 +1,17 @@
+package com.example.demoapi.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Trang chủ cư dân (GET /api/me/home): gộp 4 API mà dashboard trước đây gọi riêng lẻ
+@Data
+@Builder
+public class HomeResponse {
+    private Integer houseId;                          // null: tài khoản chưa được gán căn hộ
+    private HouseholdResponse household;              // như GET /api/households/{id}
+    private List<ResidentResponse> members;           // như GET /api/households/{id}/members
+    private List<InvoiceResponse> invoices;           // trang đầu GET /api/invoices (mới nhất trước)
+    private List<RegistrationResponse> registrations; // trang đầu GET /api/registrations (mới nhất trước)
+}
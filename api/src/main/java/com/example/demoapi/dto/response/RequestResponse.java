@@ -0,0 +1,28 @@
+package com.example.demoapi.dto.response;
+
+import com.example.demoapi.model.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Constructor đầy đủ được dùng trực tiếp trong JPQL (SELECT new ...) -> không load Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestResponse {
+    private Integer id;
+    private String title;
+    private String content;
+    private RequestStatus status;
+    private String adminResponse;
+    private Integer residentId;
+    private String residentName;
+    private Integer houseId;
+    private String roomNumber;
+    private LocalDateTime createdDate;
+    private LocalDateTime resolvedDate;
+}
@@ -0,0 +1,16 @@
+package com.example.demoapi.dto.response;
+
+import java.time.Instant;
+
+// 1 dạng câu SQL chậm (shape + kiểu tham số) trong bộ nhớ của SlowQueryRecorder
+public record SlowQueryResponse(
+        long id,
+        String sql,            // Câu SQL đã chuẩn hóa (literal -> ?, IN (...) -> (?...))
+        String parameters,     // Dạng tham số bind, VD: [Integer, null, null, String] -> biết bộ lọc nào được dùng
+        long count,
+        long totalMs,
+        long maxMs,
+        double avgMs,
+        Instant lastSeen
+) {
+}
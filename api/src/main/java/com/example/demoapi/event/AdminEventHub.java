@@ -0,0 +1,180 @@
+package com.example.demoapi.event;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hub phát sự kiện (fan-out) in-process cho màn hình Admin qua Server-Sent Events.
+ * - Mỗi subscriber có 1 buffer giới hạn: client chậm chỉ làm rơi sự kiện CŨ NHẤT của chính nó
+ *   (kèm sự kiện "resync" để client tự tải lại), không chặn luồng phát.
+ * - Việc ghi ra socket chạy trên executor riêng, không bao giờ chạy trong transaction của request.
+ * - Sự kiện chỉ được phát SAU KHI transaction commit (@TransactionalEventListener).
+ */
+@Component
+public class AdminEventHub {
+
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService deliveryExecutor;
+
+    public AdminEventHub(
+            @Value("${app.sse.buffer-size:256}") int bufferSize,
+            @Value("${app.sse.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.sse.max-subscribers:200}") int maxSubscribers,
+            @Value("${app.sse.delivery-threads:2}") int deliveryThreads
+    ) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, r -> {
+            Thread t = new Thread(r, "sse-delivery-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private record Message(long id, String name, Object data) {}
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final Queue<Message> buffer;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean overflowed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Message message) {
+            // Buffer đầy -> bỏ sự kiện cũ nhất, đánh dấu để báo client đồng bộ lại
+            while (!buffer.offer(message)) {
+                buffer.poll();
+                overflowed.set(true);
+            }
+        }
+    }
+
+    // Đăng ký nhận sự kiện
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Quá nhiều kết nối theo dõi sự kiện, vui lòng thử lại sau");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscriber.offer(new Message(sequence.incrementAndGet(), "connected", Map.of("subscribers", subscribers.size())));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void onRegistrationCreated(RegistrationCreatedEvent event) {
+        publish("registration-created", event);
+    }
+
+    @TransactionalEventListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        publish("payment-completed", event);
+    }
+
+    // Gửi comment định kỳ để proxy/load balancer không cắt kết nối đang rảnh
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            publish(null, "ping");
+        }
+    }
+
+    public void publish(String name, Object data) {
+        Message message = new Message(sequence.incrementAndGet(), name, data);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+            schedule(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    // --- Các hàm private ---
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            deliveryExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.overflowed.getAndSet(false)) {
+                subscriber.emitter.send(SseEmitter.event().name("resync").data(Map.of("reason", "buffer-overflow")));
+            }
+            Message message;
+            while ((message = subscriber.buffer.poll()) != null) {
+                if (message.name() == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment(String.valueOf(message.data())));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(message.id()))
+                            .name(message.name())
+                            .data(message.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client đã ngắt kết nối hoặc emitter đã đóng
+            subscribers.remove(subscriber);
+            subscriber.buffer.clear();
+        } finally {
+            subscriber.scheduled.set(false);
+            // Có sự kiện mới đến trong lúc đang gửi -> lên lịch lại
+            if (!subscriber.buffer.isEmpty() && subscribers.contains(subscriber)) {
+                schedule(subscriber);
+            }
+        }
+    }
+}
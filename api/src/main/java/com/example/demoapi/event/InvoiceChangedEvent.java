@@ -0,0 +1,14 @@
+package com.example.demoapi.event;
+
+import java.math.BigDecimal;
+
+// Hóa đơn được tạo / sửa / xóa (payload của outbox)
+public record InvoiceChangedEvent(
+        Integer invoiceId,
+        Integer houseId,
+        Integer month,
+        Integer year,
+        String status,
+        BigDecimal totalAmount
+) {
+}
@@ -0,0 +1,162 @@
+package com.example.demoapi.event;
+
+import com.example.demoapi.model.DomainEventType;
+import com.example.demoapi.model.OutboxEvent;
+import com.example.demoapi.model.OutboxStatus;
+import com.example.demoapi.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gửi sự kiện từ bảng outbox cho các OutboxEventListener theo lô, ngoài transaction của request.
+ * 1. Khóa 1 lô đến hạn (FOR UPDATE SKIP LOCKED) và "giữ chỗ" bằng cách đẩy available_at ra sau (lease).
+ * 2. Gọi listener cho từng sự kiện, KHÔNG giữ transaction/lock trong lúc gọi.
+ * 3. Đánh dấu PROCESSED cả lô bằng 1 câu UPDATE; sự kiện lỗi được hẹn thử lại với backoff.
+ * App chết giữa bước 2 và 3 -> hết lease sự kiện được gửi lại (giao nhận ít nhất một lần).
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<DomainEventType, List<OutboxEventListener>> listenersByType = new EnumMap<>(DomainEventType.class);
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    public OutboxDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<OutboxEventListener> listeners,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+            @Value("${app.outbox.lease-ms:60000}") long leaseMs,
+            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${app.outbox.retention-days:7}") int retentionDays
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+
+        // Chưa có listener nào cũng không sao: sự kiện vẫn được đánh dấu đã xử lý
+        listeners.orderedStream().forEach(listener -> {
+            for (DomainEventType type : listener.eventTypes()) {
+                listenersByType.computeIfAbsent(type, k -> new ArrayList<>()).add(listener);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        // Lô đầy -> có thể còn tồn, xử lý tiếp ngay (có giới hạn để không chiếm luồng scheduler mãi)
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            if (dispatchBatch() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Dọn các sự kiện đã xử lý xong quá thời hạn lưu giữ
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgeProcessed() {
+        Instant before = Instant.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Outbox: đã xóa {} sự kiện xử lý trước {}", deleted, before);
+        }
+    }
+
+    // Trả về số sự kiện đã lấy trong lô
+    int dispatchBatch() {
+        // 1. Khóa + giữ chỗ (transaction ngắn)
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> due = outboxEventRepository.lockDueBatch(now, batchSize);
+            if (!due.isEmpty()) {
+                outboxEventRepository.lease(due.stream().map(OutboxEvent::getId).toList(), now.plus(lease));
+            }
+            return due;
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // 2. Gửi cho listener
+        List<Long> processedIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                deliver(event);
+                processedIds.add(event.getId());
+            } catch (Exception e) {
+                scheduleRetry(event, e);
+            }
+        }
+
+        // 3. Đánh dấu đã xử lý (1 câu UPDATE cho cả lô)
+        if (!processedIds.isEmpty()) {
+            Instant processedAt = Instant.now();
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(processedIds, processedAt));
+        }
+        return batch.size();
+    }
+
+    // --- Các hàm private ---
+
+    private void deliver(OutboxEvent event) throws Exception {
+        List<OutboxEventListener> listeners = listenersByType.getOrDefault(event.getEventType(), Collections.emptyList());
+        // Chưa có listener nào cũng không sao: sự kiện vẫn được đánh dấu đã xử lý.
+        // Listener ném lỗi -> dừng ở đó, dispatchBatch() chuyển sang scheduleRetry
+        for (OutboxEventListener listener : listeners) {
+            listener.handle(event);
+        }
+    }
+
+    // Backoff lũy thừa: 2s, 4s, 8s... tối đa 1 giờ. Quá số lần thử -> FAILED.
+    private void scheduleRetry(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        boolean giveUp = attempts >= maxAttempts;
+        long delaySeconds = Math.min(3600L, 1L << Math.min(attempts, 12));
+        Instant retryAt = Instant.now().plus(delaySeconds, ChronoUnit.SECONDS);
+
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        String lastError = error;
+
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(
+                event.getId(), giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING, retryAt, lastError));
+
+        if (giveUp) {
+            log.error("Outbox: sự kiện #{} ({}) thất bại sau {} lần thử", event.getId(), event.getEventType(), attempts, e);
+        } else {
+            log.warn("Outbox: sự kiện #{} ({}) lỗi lần {}, thử lại lúc {}: {}",
+                    event.getId(), event.getEventType(), attempts, retryAt, lastError);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demoapi.event;
+
+import com.example.demoapi.model.DomainEventType;
+import com.example.demoapi.model.OutboxEvent;
+
+import java.util.Set;
+
+/**
+ * Listener nhận sự kiện từ outbox (chạy trên luồng của OutboxDispatcher, ngoài transaction của request).
+ * Giao nhận "ít nhất một lần": cùng 1 sự kiện có thể đến nhiều lần (VD: app tắt giữa chừng),
+ * nên handle() phải idempotent - dùng event.getId() làm khóa chống trùng nếu cần.
+ */
+public interface OutboxEventListener {
+
+    // Các loại sự kiện listener quan tâm
+    Set<DomainEventType> eventTypes();
+
+    // Ném exception -> sự kiện được thử lại sau (backoff)
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,16 @@
+package com.example.demoapi.event;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Phát ra khi một giao dịch thanh toán thành công (sau khi commit)
+public record PaymentCompletedEvent(
+        Integer paymentId,
+        Integer invoiceId,
+        Integer houseId,
+        String roomNumber,
+        BigDecimal amount,
+        String invoiceStatus,
+        Instant paidAt
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.demoapi.event;
+
+import com.example.demoapi.model.RegistrationStatus;
+import com.example.demoapi.model.RegistrationType;
+
+import java.time.LocalDate;
+
+// Phát ra khi một đơn tạm trú / tạm vắng mới được tạo (sau khi commit)
+public record RegistrationCreatedEvent(
+        Integer id,
+        Integer houseId,
+        String roomNumber,
+        Integer residentId,
+        String residentName,
+        RegistrationType type,
+        RegistrationStatus status,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.demoapi.event;
+
+import com.example.demoapi.model.RegistrationStatus;
+
+// Đơn tạm trú / tạm vắng được duyệt, từ chối hoặc xóa (payload của outbox)
+public record RegistrationStatusChangedEvent(
+        Integer id,
+        RegistrationStatus status,
+        String adminNote
+) {
+}
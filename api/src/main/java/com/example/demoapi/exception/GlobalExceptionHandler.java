@@ -1,5 +1,8 @@
 package com.example.demoapi.exception; // Tạo package này
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -21,6 +24,67 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    // Refresh token vừa bị request song song (tab khác) xoay vòng -> 401, client dùng cookie mới và gọi lại
+    @ExceptionHandler(RefreshTokenAlreadyRotatedException.class)
+    public ResponseEntity<Object> handleRefreshTokenAlreadyRotated(RefreshTokenAlreadyRotatedException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 401);
+        body.put("error", "Unauthorized");
+        body.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(body);
+    }
+
+    // Quá tải băm mật khẩu (đợt đăng nhập dồn dập) -> 503 + Retry-After
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Object> handlePasswordHashingBusy(PasswordHashingBusyException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 503);
+        body.put("error", "Service Unavailable");
+        body.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    // Tải dữ liệu trang chủ cư dân quá lâu (DB / pool đang quá tải) -> 503 + Retry-After
+    @ExceptionHandler(HomeLoadTimeoutException.class)
+    public ResponseEntity<Object> handleHomeLoadTimeout(HomeLoadTimeoutException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 503);
+        body.put("error", "Service Unavailable");
+        body.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    // Bản ghi (@Version) vừa bị người khác sửa trong lúc mình sửa -> 409, tải lại rồi thao tác lại
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLocking(OptimisticLockingFailureException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 409);
+        body.put("error", "Conflict");
+        body.put("message", "Dữ liệu vừa được người khác cập nhật, vui lòng tải lại và thử lại");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    // Vượt giới hạn tần suất -> 429 + Retry-After
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Object> handleRateLimitExceeded(RateLimitExceededException e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 429);
+        body.put("error", "Too Many Requests");
+        body.put("message", e.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     // (Tùy chọn) Bắt lỗi chung chung khác
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Object> handleGeneralException(Exception e) {
@@ -0,0 +1,8 @@
+package com.example.demoapi.exception;
+
+// Tải song song dữ liệu trang chủ cư dân (/api/me/home) quá thời gian cho phép -> trả 503 để client thử lại sau
+public class HomeLoadTimeoutException extends RuntimeException {
+    public HomeLoadTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demoapi.exception;
+
+// Refresh token không hợp lệ / hết hạn / đã bị dùng lại.
+// Không rollback transaction khi ném lỗi này: việc thu hồi họ token phải được giữ lại.
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
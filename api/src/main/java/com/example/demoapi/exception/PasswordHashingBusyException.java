@@ -0,0 +1,8 @@
+package com.example.demoapi.exception;
+
+// Hàng đợi băm mật khẩu đã đầy (đợt đăng nhập dồn dập) -> trả 503 để client thử lại sau
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demoapi.exception;
+
+// Request vượt ngân sách câu SQL (chỉ ném ra ở app.query-budget.mode=fail, dùng khi chạy test)
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demoapi.exception;
+
+import lombok.Getter;
+
+// Vượt giới hạn tần suất (đăng nhập / đăng ký) -> 429 + Retry-After
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demoapi.exception;
+
+// Token vừa được xoay vòng bởi 1 request khác gửi cùng lúc (nhiều tab refresh đồng thời) -> 401, KHÔNG thu hồi họ token.
+// Client đã nhận cookie mới từ request thắng, chỉ cần gọi lại.
+public class RefreshTokenAlreadyRotatedException extends InvalidRefreshTokenException {
+    public RefreshTokenAlreadyRotatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demoapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đếm số câu lệnh JDBC + thời gian chạy (qua datasource-proxy, xem DataSourceProxyConfig):
+ * - cộng vào RequestMetricsContext nếu đang trong 1 request HTTP,
+ * - ghi timer toàn cục app.jdbc.statements (tách request / nền).
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcMetricsListener implements QueryExecutionListener {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestMetricsContext context = RequestMetricsContext.current();
+        if (context != null) {
+            context.recordExecution(execInfo.getElapsedTime());
+            for (QueryInfo query : queryInfoList) {
+                context.recordShape(SqlShapes.normalize(query.getQuery()));
+            }
+        }
+        Timer.builder("app.jdbc.statements")
+                .description("Thời gian thực thi câu lệnh JDBC")
+                .tag("context", context != null ? "request" : "background")
+                .tag("success", String.valueOf(execInfo.isSuccess()))
+                .register(meterRegistry)
+                .record(execInfo.getElapsedTime(), TimeUnit.MILLISECONDS);
+    }
+}
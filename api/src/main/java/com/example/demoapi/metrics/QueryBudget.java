@@ -0,0 +1,21 @@
+package com.example.demoapi.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ngân sách câu SQL riêng cho 1 handler (hoặc cả controller), ghi đè app.query-budget.* mặc định.
+ * VD: @QueryBudget(statements = 200) cho endpoint xử lý hàng loạt.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    // Tổng số câu lệnh tối đa trong 1 request (-1 = dùng mặc định)
+    int statements() default -1;
+
+    // Số lần tối đa 1 câu SQL cùng shape được lặp lại (-1 = dùng mặc định)
+    int repeated() default -1;
+}
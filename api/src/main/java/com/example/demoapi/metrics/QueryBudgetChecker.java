@@ -0,0 +1,106 @@
+package com.example.demoapi.metrics;
+
+import com.example.demoapi.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kiểm tra ngân sách câu SQL của mỗi request (phát hiện N+1):
+ * - tổng số câu lệnh > statements, hoặc
+ * - 1 câu SQL cùng shape lặp lại > repeated lần (dấu hiệu lazy load trong vòng lặp).
+ * Chế độ (app.query-budget.mode):
+ * - log:  cảnh báo có lấy mẫu (mỗi handler tối đa 1 dòng / log-interval-ms) + metric app.query.budget.exceeded
+ * - fail: ném QueryBudgetExceededException -> test tích hợp (MockMvc) thất bại ngay
+ * - off:  tắt
+ */
+@Slf4j
+@Component
+public class QueryBudgetChecker {
+
+    private final MeterRegistry meterRegistry;
+    private final String mode;
+    private final int maxStatements;
+    private final int maxRepeated;
+    private final long logIntervalMs;
+
+    private final Map<String, AtomicLong> lastLoggedAt = new ConcurrentHashMap<>();
+
+    public QueryBudgetChecker(
+            MeterRegistry meterRegistry,
+            @Value("${app.query-budget.mode:log}") String mode,
+            @Value("${app.query-budget.max-statements:50}") int maxStatements,
+            @Value("${app.query-budget.max-repeated:10}") int maxRepeated,
+            @Value("${app.query-budget.log-interval-ms:60000}") long logIntervalMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.mode = mode;
+        this.maxStatements = maxStatements;
+        this.maxRepeated = maxRepeated;
+        this.logIntervalMs = logIntervalMs;
+    }
+
+    void check(String handlerName, HandlerMethod handler, RequestMetricsContext context) {
+        if ("off".equalsIgnoreCase(mode) || context.statementCount() == 0) {
+            return;
+        }
+
+        // 1. Ngân sách của handler (annotation trên method, rồi trên class), thiếu thì dùng mặc định
+        int statementBudget = maxStatements;
+        int repeatedBudget = maxRepeated;
+        if (handler != null) {
+            QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), QueryBudget.class);
+            if (budget == null) {
+                budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+            }
+            if (budget != null) {
+                statementBudget = budget.statements() >= 0 ? budget.statements() : statementBudget;
+                repeatedBudget = budget.repeated() >= 0 ? budget.repeated() : repeatedBudget;
+            }
+        }
+
+        // 2. Shape bị lặp nhiều nhất
+        String topShape = null;
+        int topCount = 0;
+        for (Map.Entry<String, Integer> entry : context.shapeCounts().entrySet()) {
+            if (entry.getValue() > topCount) {
+                topShape = entry.getKey();
+                topCount = entry.getValue();
+            }
+        }
+
+        boolean tooMany = context.statementCount() > statementBudget;
+        boolean repeated = topCount > repeatedBudget;
+        if (!tooMany && !repeated) {
+            return;
+        }
+
+        // 3. Báo vi phạm
+        meterRegistry.counter("app.query.budget.exceeded", "handler", handlerName,
+                "reason", repeated ? "repeated" : "statements").increment();
+
+        String message = String.format("Vượt ngân sách SQL tại %s: %d câu lệnh (ngân sách %d), câu lặp nhiều nhất %d lần (ngân sách %d): %s",
+                handlerName, context.statementCount(), statementBudget, topCount, repeatedBudget, topShape);
+        if ("fail".equalsIgnoreCase(mode)) {
+            throw new QueryBudgetExceededException(message);
+        }
+        if (shouldLog(handlerName)) {
+            log.warn(message);
+        }
+    }
+
+    // Lấy mẫu: mỗi handler tối đa 1 cảnh báo trong mỗi khoảng log-interval-ms
+    private boolean shouldLog(String handlerName) {
+        long now = System.currentTimeMillis();
+        AtomicLong last = lastLoggedAt.computeIfAbsent(handlerName, k -> new AtomicLong());
+        long previous = last.get();
+        return now - previous >= logIntervalMs && last.compareAndSet(previous, now);
+    }
+}
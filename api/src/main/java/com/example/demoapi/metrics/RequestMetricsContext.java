@@ -0,0 +1,80 @@
+package com.example.demoapi.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Số liệu JDBC của request đang chạy trên thread hiện tại (mở/đóng bởi RequestMetricsFilter).
+ * Câu lệnh chạy ngoài request (job @Scheduled, outbox...) không có context -> current() trả về null.
+ * Việc chạy song song cho 1 request (VD: /api/me/home) bọc task bằng propagate() để vẫn cộng vào request gốc.
+ */
+public final class RequestMetricsContext {
+
+    private static final ThreadLocal<RequestMetricsContext> CURRENT = new ThreadLocal<>();
+
+    private int statementCount;
+    private long jdbcTimeMs;
+    private final Map<String, Integer> shapeCounts = new ConcurrentHashMap<>();
+
+    private RequestMetricsContext() {
+    }
+
+    static RequestMetricsContext begin() {
+        RequestMetricsContext context = new RequestMetricsContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestMetricsContext current() {
+        return CURRENT.get();
+    }
+
+    // Gắn context của thread gọi vào task (chạy trên thread khác), trả lại trạng thái cũ của thread đó sau khi xong
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        RequestMetricsContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            RequestMetricsContext previous = CURRENT.get();
+            CURRENT.set(context);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    // 1 lần thực thi JDBC (1 câu lệnh hoặc 1 batch). synchronized: có thể được gọi từ nhiều thread (propagate)
+    synchronized void recordExecution(long elapsedMs) {
+        statementCount++;
+        jdbcTimeMs += elapsedMs;
+    }
+
+    void recordShape(String shape) {
+        shapeCounts.merge(shape, 1, Integer::sum);
+    }
+
+    public synchronized int statementCount() {
+        return statementCount;
+    }
+
+    public synchronized long jdbcTimeMs() {
+        return jdbcTimeMs;
+    }
+
+    // Số lần chạy của từng shape SQL trong request
+    public Map<String, Integer> shapeCounts() {
+        return shapeCounts;
+    }
+}
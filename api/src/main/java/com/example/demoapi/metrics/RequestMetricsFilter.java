@@ -0,0 +1,110 @@
+package com.example.demoapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Đo mỗi request theo handler (VD: InvoiceController.getAllInvoices):
+ * - app.request.latency: histogram độ trễ (tag handler, method, status)
+ * - app.request.jdbc.statements / app.request.jdbc.time: số câu SQL + thời gian DB của request
+ * - app.request.errors: số lỗi theo loại exception (exception đi tới GlobalExceptionHandler / lỗi 5xx)
+ * Sau đó kiểm tra ngân sách câu SQL của request (QueryBudgetChecker).
+ * Chạy trước Spring Security nên tính cả các câu SQL của JwtAuthenticationFilter.
+ * Xem tại /actuator/prometheus (chỉ Admin).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final ErrorAttributes errorAttributes;
+    private final QueryBudgetChecker queryBudgetChecker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestMetricsContext context = RequestMetricsContext.begin();
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            RequestMetricsContext.end();
+            // SSE / async: phần còn lại chạy ở thread khác, không đo
+            if (!request.isAsyncStarted()) {
+                record(request, response, context, System.nanoTime() - start, failure);
+            }
+        }
+        if (!request.isAsyncStarted()) {
+            queryBudgetChecker.check(handlerName(request), handlerMethod(request), context);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestMetricsContext context,
+                        long elapsedNanos, Throwable failure) {
+        String handler = handlerName(request);
+        String status = failure != null ? "500" : String.valueOf(response.getStatus());
+
+        Timer.builder("app.request.latency")
+                .description("Độ trễ request theo handler")
+                .tags("handler", handler, "method", request.getMethod(), "status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+
+        DistributionSummary.builder("app.request.jdbc.statements")
+                .description("Số câu lệnh JDBC mỗi request")
+                .tag("handler", handler)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry)
+                .record(context.statementCount());
+
+        Timer.builder("app.request.jdbc.time")
+                .description("Tổng thời gian DB mỗi request")
+                .tag("handler", handler)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(context.jdbcTimeMs()));
+
+        Throwable error = failure != null ? failure : errorAttributes.getError(new ServletWebRequest(request));
+        if (error != null) {
+            meterRegistry.counter("app.request.errors",
+                    "handler", handler, "exception", error.getClass().getSimpleName(), "status", status).increment();
+        }
+    }
+
+    // "InvoiceController.getAllInvoices"; request không tới controller (401/403, 404...) -> "none"
+    static String handlerName(HttpServletRequest request) {
+        HandlerMethod method = handlerMethod(request);
+        return method != null ? method.getBeanType().getSimpleName() + "." + method.getMethod().getName() : "none";
+    }
+
+    static HandlerMethod handlerMethod(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method
+                ? method : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demoapi.metrics;
+
+import com.example.demoapi.dto.response.CacheRegionResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hit / miss / put theo từng vùng second-level cache (entity + query cache), đọc từ Statistics của Hibernate
+ * (cần hibernate.generate_statistics=true). Prometheus có sẵn: hibernate_second_level_cache_requests_total{region,result}.
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    private final SessionFactory sessionFactory;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionResponse> regions() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionResponse> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long hits = stats.getHitCount();
+            long misses = stats.getMissCount();
+            long requests = hits + misses;
+            result.add(new CacheRegionResponse(
+                    region,
+                    hits,
+                    misses,
+                    stats.getPutCount(),
+                    requests == 0 ? 0 : (double) hits / requests,
+                    stats.getElementCountInMemory()));
+        }
+        result.sort(Comparator.comparing(CacheRegionResponse::region));
+        return result;
+    }
+
+    // Xóa toàn bộ dữ liệu trong cache (vd. sau khi sửa tay dưới DB); thống kê giữ nguyên
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demoapi.metrics;
+
+import com.example.demoapi.dto.response.SlowQueryResponse;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ghi nhận câu SQL chậm (>= app.slow-query.threshold-ms) thay cho show-sql / TRACE bind:
+ * câu nhanh chỉ tốn 1 phép so sánh, câu chậm được gom theo (shape SQL + kiểu tham số bind)
+ * và giữ top-N theo tổng thời gian trong bộ nhớ.
+ * Giá trị bind của lần chậm gần nhất chỉ nằm trong bộ nhớ (không log) để Admin chạy EXPLAIN khi cần.
+ */
+@Slf4j
+@Component
+public class SlowQueryRecorder implements QueryExecutionListener {
+
+    private final long thresholdMs;
+    private final int maxShapes;
+    private final long explainTimeoutMs;
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowQueryRecorder(
+            @Value("${app.slow-query.threshold-ms:200}") long thresholdMs,
+            @Value("${app.slow-query.max-shapes:100}") int maxShapes,
+            @Value("${app.slow-query.explain-timeout-ms:5000}") long explainTimeoutMs,
+            ObjectProvider<DataSource> dataSource,
+            ObjectProvider<PlatformTransactionManager> transactionManager
+    ) {
+        this.thresholdMs = thresholdMs;
+        this.maxShapes = maxShapes;
+        this.explainTimeoutMs = explainTimeoutMs;
+        this.dataSource = dataSource;
+        this.transactionManager = transactionManager;
+    }
+
+    private static final class Entry {
+        final long id;
+        final String sql;
+        final String parameters;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMs = new LongAdder();
+        final AtomicLong maxMs = new AtomicLong();
+        volatile Instant lastSeen;
+        volatile String sampleSql;        // Câu SQL gốc (chưa chuẩn hóa) của lần gần nhất
+        volatile Object[] sampleValues;   // Giá trị bind tương ứng
+
+        Entry(long id, String sql, String parameters) {
+            this.id = id;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        if (elapsedMs < thresholdMs) {
+            return;
+        }
+        for (QueryInfo query : queryInfoList) {
+            Object[] values = bindValues(query);
+            String parameters = parameterShape(values);
+            String shape = SqlShapes.normalize(query.getQuery());
+
+            Entry entry = entries.get(shape + '|' + parameters);
+            if (entry == null) {
+                entry = register(shape, parameters, elapsedMs);
+            }
+            entry.count.increment();
+            entry.totalMs.add(elapsedMs);
+            entry.maxMs.accumulateAndGet(elapsedMs, Math::max);
+            entry.lastSeen = Instant.now();
+            entry.sampleSql = query.getQuery();
+            entry.sampleValues = values;
+        }
+    }
+
+    // Top câu chậm, sắp theo tổng thời gian giảm dần
+    public List<SlowQueryResponse> top() {
+        List<SlowQueryResponse> result = new ArrayList<>();
+        for (Entry e : entries.values()) {
+            long count = e.count.sum();
+            long total = e.totalMs.sum();
+            result.add(new SlowQueryResponse(e.id, e.sql, e.parameters, count, total, e.maxMs.get(),
+                    count == 0 ? 0 : Math.round(total * 10.0 / count) / 10.0, e.lastSeen));
+        }
+        result.sort(Comparator.comparingLong(SlowQueryResponse::totalMs).reversed());
+        return result;
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    // EXPLAIN (không ANALYZE -> không thực thi câu lệnh) với giá trị bind của lần chậm gần nhất
+    public List<String> explain(long id) {
+        Entry entry = entries.values().stream()
+                .filter(e -> e.id == id)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy câu SQL chậm #" + id));
+
+        String sql = entry.sampleSql;
+        if (sql == null || !sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            throw new RuntimeException("Chỉ hỗ trợ EXPLAIN câu SELECT");
+        }
+        Object[] values = entry.sampleValues;
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager.getObject());
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource.getObject());
+            jdbc.execute("SET LOCAL statement_timeout = " + explainTimeoutMs);
+            return jdbc.queryForList("EXPLAIN (VERBOSE, COSTS, FORMAT TEXT) " + sql, String.class, values);
+        });
+    }
+
+    // --- Các hàm private ---
+
+    private Entry register(String shape, String parameters, long elapsedMs) {
+        // Đầy -> bỏ dạng có tổng thời gian nhỏ nhất (chỉ xảy ra khi gặp dạng chậm MỚI)
+        if (entries.size() >= maxShapes) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().totalMs.sum()))
+                    .ifPresent(min -> entries.remove(min.getKey()));
+        }
+        String key = shape + '|' + parameters;
+        return entries.computeIfAbsent(key, k -> {
+            log.info("Câu SQL chậm mới ({} ms) {} {}", elapsedMs, shape, parameters);
+            return new Entry(sequence.incrementAndGet(), shape, parameters);
+        });
+    }
+
+    private static Object[] bindValues(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return new Object[0];
+        }
+        // Batch: lấy bộ tham số đầu tiên làm mẫu
+        Map<Integer, Object> byIndex = new TreeMap<>();
+        for (ParameterSetOperation op : query.getParametersList().get(0)) {
+            Object[] args = op.getArgs();
+            if (args.length > 0 && args[0] instanceof Integer index) {
+                byIndex.put(index, ParameterSetOperation.isSetNullParameterOperation(op) || args.length < 2 ? null : args[1]);
+            }
+        }
+        return byIndex.values().toArray();
+    }
+
+    // Chỉ lấy KIỂU của tham số (null / Integer / String...), không lấy giá trị
+    private static String parameterShape(Object[] values) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object value : values) {
+            joiner.add(value == null ? "null" : value.getClass().getSimpleName());
+        }
+        return joiner.toString();
+    }
+}
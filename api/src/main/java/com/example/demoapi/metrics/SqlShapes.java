@@ -0,0 +1,42 @@
+package com.example.demoapi.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa câu SQL về "dạng" (shape): bỏ giá trị literal, gộp danh sách IN (?, ?, ...) và khoảng trắng.
+ * Hai câu chỉ khác tham số -> cùng 1 shape (dùng để phát hiện N+1 và gom slow query).
+ */
+public final class SqlShapes {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Hibernate sinh ra 1 tập câu SQL hữu hạn -> cache kết quả (có giới hạn, phòng câu SQL động)
+    private static final int CACHE_LIMIT = 2000;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlShapes() {
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        if (CACHE.size() < CACHE_LIMIT) {
+            CACHE.put(sql, shape);
+        }
+        return shape;
+    }
+}
@@ -2,10 +2,15 @@ package com.example.demoapi.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @Entity
 @Table(name = "apartment")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "apartment") // Ít đổi, đọc ở hầu hết nghiệp vụ (xem ehcache.xml)
 public class Apartment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,4 +31,9 @@ public class Apartment {
     @Column(nullable = false, unique = true)
     private String apartmentNumber;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
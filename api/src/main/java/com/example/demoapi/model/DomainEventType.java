@@ -0,0 +1,13 @@
+package com.example.demoapi.model;
+
+// Các loại sự kiện nghiệp vụ được ghi vào outbox
+public enum DomainEventType {
+    PAYMENT_COMPLETED,
+    INVOICE_CREATED,
+    INVOICE_UPDATED,
+    INVOICE_DELETED,
+    REGISTRATION_CREATED,
+    REGISTRATION_UPDATED,
+    REGISTRATION_STATUS_CHANGED,
+    REGISTRATION_DELETED
+}
@@ -3,6 +3,9 @@ package com.example.demoapi.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
@@ -10,6 +13,8 @@ import java.math.BigDecimal;
 @Setter
 @Entity
 @Table(name = "fee")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "fee")
 public class Fee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -34,4 +39,9 @@ public class Fee {
     @Column(name = "is_mandatory")
     private boolean is_mandatory;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
\ No newline at end of file
@@ -35,4 +35,9 @@ public class Invoice {
     @Column(name = "status", length = 50)
     private String status;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
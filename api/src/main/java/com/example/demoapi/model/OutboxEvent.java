@@ -0,0 +1,51 @@
+package com.example.demoapi.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Sự kiện nghiệp vụ được ghi CÙNG transaction với thay đổi dữ liệu, gửi đi sau bởi OutboxDispatcher
+@Data
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_status_available", columnList = "status, available_at, id")
+})
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 100)
+    private DomainEventType eventType;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType; // VD: Invoice, TemporaryRegistration
+
+    @Column(name = "aggregate_id", length = 64)
+    private String aggregateId;
+
+    @Column(name = "payload", columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Thời điểm sớm nhất được gửi (dùng cho cả retry backoff và "giữ chỗ" khi đang gửi)
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,7 @@
+package com.example.demoapi.model;
+
+public enum OutboxStatus {
+    PENDING,   // Chờ gửi cho các listener
+    PROCESSED, // Đã gửi thành công
+    FAILED     // Hết số lần thử, cần người xử lý
+}
@@ -6,19 +6,35 @@ import java.time.Instant;
 
 @Data
 @Entity
-@Table(name = "refreshtoken")
+@Table(name = "refreshtoken", indexes = {
+        // Thu hồi cả họ token khi phát hiện dùng lại token cũ (xem UsedRefreshToken)
+        @Index(name = "idx_refreshtoken_family_id", columnList = "family_id"),
+        // Các phiên (thiết bị) của 1 tài khoản
+        @Index(name = "idx_refreshtoken_account", columnList = "accountid"),
+        // Job dọn token hết hạn
+        @Index(name = "idx_refreshtoken_expiry_date", columnList = "expiry_date")
+})
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
 
+    // SHA-256 (hex) của token gửi cho client - DB không lưu token gốc
     @Column(nullable = false, unique = true)
     private String token;
 
+    // Họ token: sinh ra khi đăng nhập, giữ nguyên qua các lần xoay vòng. Mỗi thiết bị 1 họ (1 dòng).
+    @Column(name = "family_id", length = 36)
+    private String familyId;
+
+    @Column(name = "device", length = 255)
+    private String device; // User-Agent lúc đăng nhập (để hiển thị danh sách phiên)
+
     @Column(nullable = false)
     private Instant expiryDate;
 
-    @OneToOne
+    // Nhiều thiết bị -> nhiều họ token cho 1 tài khoản (trước đây @OneToOne: đăng nhập máy mới đá máy cũ)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "accountid", referencedColumnName = "accountid")
     private UserAccount userAccount;
-}
\ No newline at end of file
+}
@@ -2,19 +2,27 @@ package com.example.demoapi.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "request")
+@Table(name = "request", indexes = {
+        // Hộp thư Admin: lọc theo trạng thái + phân trang keyset theo requestid
+        @Index(name = "idx_request_status_id", columnList = "status, requestid"),
+        @Index(name = "idx_request_resident", columnList = "residentid")
+})
 public class Request {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer requestid;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "residentid", referencedColumnName = "residentid")
     private Resident resident; // Ai là người gửi yêu cầu
 
@@ -24,8 +32,9 @@ public class Request {
     @Column(columnDefinition = "TEXT")
     private String content; // Nội dung chi tiết
 
+    @Enumerated(EnumType.STRING) // Vẫn lưu chuỗi "PENDING"/"APPROVED"/"REJECTED" như trước
     @Column(length = 50)
-    private String status; // "PENDING" (Chờ duyệt), "APPROVED" (Đã duyệt), "REJECTED" (Từ chối)
+    private RequestStatus status;
 
     @Column(columnDefinition = "TEXT")
     private String adminresponse; // Lý do từ chối hoặc ghi chú của Admin
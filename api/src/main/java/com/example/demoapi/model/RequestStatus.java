@@ -0,0 +1,7 @@
+package com.example.demoapi.model;
+
+public enum RequestStatus {
+    PENDING,  // Chờ Admin xử lý
+    APPROVED, // Đã duyệt / đã xử lý
+    REJECTED  // Từ chối
+}
@@ -2,6 +2,9 @@ package com.example.demoapi.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 
 @Data
@@ -12,7 +15,9 @@ public class Resident {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer residentid;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "houseid", referencedColumnName = "houseid")
     private Apartment apartment;
 
@@ -45,6 +50,11 @@ public class Resident {
     @Column(name = "avatar")
     private String avatar;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     private String cccd;
 
     private String relationship; // Quan hệ với chủ hộ
@@ -16,12 +16,12 @@ public class TemporaryRegistration {
     private Integer id;
 
     // Liên kết với cư dân (người làm đơn hoặc người được đăng ký)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "resident_id", nullable = false)
     private Resident resident;
 
     // Liên kết với căn hộ
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "house_id", nullable = false)
     private Apartment apartment;
 
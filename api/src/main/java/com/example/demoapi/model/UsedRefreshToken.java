@@ -0,0 +1,30 @@
+package com.example.demoapi.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+// Hash của các refresh token đã bị xoay vòng, theo họ token. Token nào trong đây bị gửi lại = bị đánh cắp / replay,
+// dù đã cũ bao nhiêu lần xoay vòng. Giữ đến khi cả họ token không còn (RefreshTokenPurgeJob dọn).
+// Chỉ ghi / xóa bằng câu lệnh native (RefreshTokenRepository), Entity để Hibernate tạo bảng.
+@Data
+@Entity
+@Table(name = "refreshtoken_used", indexes = {
+        @Index(name = "idx_refreshtoken_used_family_id", columnList = "family_id")
+})
+public class UsedRefreshToken {
+    // SHA-256 (hex) của token cũ
+    @Id
+    @Column(name = "token_hash", length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", length = 36, nullable = false)
+    private String familyId;
+
+    // Lúc token bị xoay vòng: gửi lại ngay sau đó (trong jwt.refresh-token.reuse-grace-ms) là refresh song song, không phải replay
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "used_at", nullable = false)
+    private Instant usedAt;
+}
@@ -2,10 +2,16 @@ package com.example.demoapi.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
 @Table(name = "useraccount")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "userAccount") // Đọc ở mọi request có JWT (xem ehcache.xml)
 public class UserAccount {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,7 +22,10 @@ public class UserAccount {
     private String password; // Will be encrypted
     private String role;     // "ADMIN" or "RESIDENT"
 
-    @OneToOne
+    // Không đưa vào toString/equals/hashCode của @Data (tránh kích hoạt lazy load)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "residentid", referencedColumnName = "residentid")
     private Resident resident;
 }
\ No newline at end of file
@@ -47,6 +47,10 @@ public interface ApartmentRepository extends JpaRepository<Apartment, Integer> {
 """)
     Optional<HouseholdResponse> findHouseholdDetailById(@Param("id") Integer id);
 
+    // Version của căn hộ (ETag) - không dùng query cache (xem ETags)
+    @Query("SELECT a.version FROM Apartment a WHERE a.houseid = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
     boolean existsByApartmentNumber(String apartmentNumber);
 
     Optional<Apartment> findByApartmentNumber(String apartmentNumber);
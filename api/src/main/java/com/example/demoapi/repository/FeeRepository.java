@@ -1,9 +1,28 @@
 package com.example.demoapi.repository;
 
 import com.example.demoapi.model.Fee;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface FeeRepository extends JpaRepository<Fee, Integer> {
+    // Danh sách phí (vài dòng, đọc khi lập hóa đơn / hiển thị) -> query cache
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Fee> findAll();
+
+    // Dấu phiên bản cả bảng phí (ETag): md5 của danh sách (id:version) theo thứ tự id.
+    // Không dùng query cache (xem ETags); native.spaces để Hibernate chỉ auto-flush khi bảng fee có thay đổi chờ ghi
+    @Query(value = """
+        SELECT COALESCE(md5(string_agg(feeid || ':' || version, ',' ORDER BY feeid)), 'none')
+        FROM fee
+    """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "fee"))
+    String findVersionStamp();
+
     // Kiểm tra trùng tên
     boolean existsByFeename(String feename);
 
@@ -2,6 +2,7 @@ package com.example.demoapi.repository;
 
 import com.example.demoapi.model.Invoice;
 import com.example.demoapi.model.Invoicedetail;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +18,10 @@ public interface InvoiceDetailRepository extends JpaRepository<Invoicedetail, In
     // Spring Data JPA sẽ tự parse theo tên biến: findBy + Invoiceid (biến trong Invoicedetail)
     List<Invoicedetail> findByInvoiceid(Invoice invoice);
 
+    // Như trên nhưng kèm luôn loại phí (hiển thị tên / đơn giá) trong cùng 1 query
+    @EntityGraph(attributePaths = "feeid")
+    List<Invoicedetail> findWithFeeByInvoiceid(Invoice invoice);
+
     // 2. Tính tổng tiền của các chi tiết thuộc về 1 hóa đơn
     // Hàm này cực kỳ quan trọng khi bạn Update/Xóa 1 khoản phí, cần gọi hàm này để tính lại tổng tiền cho Invoice cha
     @Query("SELECT SUM(d.amount) FROM Invoicedetail d WHERE d.invoiceid.invoiceid = :invoiceId")
@@ -5,7 +5,9 @@ import com.example.demoapi.model.RefreshToken;
 import com.example.demoapi.model.UserAccount;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -16,6 +18,20 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     boolean existsByHouseid_Houseid(Integer houseId); // Kiểm tra xem nhà này có hóa đơn nào không
 
+    // Version hóa đơn . version căn hộ (ETag: chi tiết hóa đơn hiển thị cả số phòng)
+    @Query("""
+        SELECT concat(cast(i.version as String), '.', COALESCE(cast(h.version as String), '-'))
+        FROM Invoice i
+        LEFT JOIN i.houseid h
+        WHERE i.invoiceid = :id
+    """)
+    Optional<String> findVersionStampById(@Param("id") Integer id);
+
+    // Lấy hóa đơn và BUỘC tăng version khi flush (sửa / xóa dòng chi tiết có thể không làm đổi tổng tiền)
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT i FROM Invoice i WHERE i.invoiceid = :id")
+    Optional<Invoice> findWithVersionBumpById(@Param("id") Integer id);
+
     @Query("SELECT COUNT(i) > 0 FROM Invoice i WHERE i.houseid.houseid = :houseId AND lower(i.status) = 'unpaid'")
     boolean existsUnpaidInvoiceByHouseId(@Param("houseId") Integer houseId);
 
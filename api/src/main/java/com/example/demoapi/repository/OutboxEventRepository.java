@@ -0,0 +1,61 @@
+package com.example.demoapi.repository;
+
+import com.example.demoapi.model.OutboxEvent;
+import com.example.demoapi.model.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Khóa 1 lô sự kiện đến hạn. SKIP LOCKED: nhiều instance chạy song song không lấy trùng lô.
+    @Query(value = """
+        SELECT * FROM outbox_event
+        WHERE status = 'PENDING' AND available_at <= :now
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<OutboxEvent> lockDueBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    // "Giữ chỗ" lô vừa khóa: instance khác chỉ lấy lại được nếu instance này chết quá thời hạn lease
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.availableAt = :leaseUntil WHERE e.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.status = com.example.demoapi.model.OutboxStatus.PROCESSED,
+            e.processedAt = :processedAt,
+            e.attempts = e.attempts + 1,
+            e.lastError = NULL
+        WHERE e.id IN :ids
+        """)
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") Instant processedAt);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.status = :status,
+            e.attempts = e.attempts + 1,
+            e.availableAt = :retryAt,
+            e.lastError = :error
+        WHERE e.id = :id
+        """)
+    int markFailed(@Param("id") Long id,
+                   @Param("status") OutboxStatus status,
+                   @Param("retryAt") Instant retryAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.example.demoapi.model.OutboxStatus.PROCESSED AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -1,15 +1,117 @@
 package com.example.demoapi.repository;
 
 import com.example.demoapi.model.RefreshToken;
-import com.example.demoapi.model.UserAccount;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    // Find a token by its string value
-    Optional<RefreshToken> findByToken(String token);
+    // Kết quả của lần xoay vòng: chủ của token
+    interface RotatedOwner {
+        String getEmail();
+        String getRole();
+    }
+
+    // Token cũ tìm thấy trong lịch sử xoay vòng
+    interface UsedToken {
+        String getFamilyId();
+        // true = bị xoay vòng sau graceStart (refresh song song), false = replay thật
+        boolean getWithinGrace();
+    }
+
+    // Xoay vòng token trong 1 câu lệnh: chỉ đổi được nếu token cũ còn đúng và chưa hết hạn,
+    // đồng thời ghi hash cũ vào lịch sử của họ token (refreshtoken_used).
+    // 2 request dùng cùng 1 token -> chỉ 1 request thắng (row lock), request kia nhận 0 dòng.
+    @Query(value = """
+        WITH rotated AS (
+            UPDATE refreshtoken r
+            SET token = :newHash, expiry_date = :expiryDate
+            FROM useraccount u
+            WHERE r.token = :oldHash
+              AND r.expiry_date > :now
+              AND u.accountid = r.accountid
+            RETURNING r.family_id, u.email, u.role
+        ), used AS (
+            INSERT INTO refreshtoken_used (token_hash, family_id, used_at)
+            SELECT :oldHash, family_id, :now FROM rotated
+        )
+        SELECT email AS email, role AS role FROM rotated
+        """, nativeQuery = true)
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.query.native.spaces", value = "refreshtoken"),
+            @QueryHint(name = "org.hibernate.query.native.spaces", value = "refreshtoken_used")
+    })
+    List<RotatedOwner> rotate(
+            @Param("oldHash") String oldHash,
+            @Param("newHash") String newHash,
+            @Param("expiryDate") Instant expiryDate,
+            @Param("now") Instant now);
+
+    // Họ token mà token (đã bị xoay vòng) này từng thuộc về
+    @Query(value = """
+        SELECT family_id AS familyId, used_at > :graceStart AS withinGrace
+        FROM refreshtoken_used
+        WHERE token_hash = :hash
+        """, nativeQuery = true)
+    Optional<UsedToken> findUsedToken(@Param("hash") String hash, @Param("graceStart") Instant graceStart);
+
+    // Token đã bị xoay vòng mà vẫn được gửi lại -> thu hồi cả họ token
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.token = :hash")
+    int deleteByToken(@Param("hash") String hash);
+
+    // Giữ tối đa `keep` họ token mới dùng gần nhất của tài khoản, đồng thời bỏ các họ đã hết hạn
+    @Modifying
+    @Query(value = """
+        DELETE FROM refreshtoken
+        WHERE accountid = :accountId
+          AND (expiry_date <= :now
+               OR id NOT IN (SELECT id FROM refreshtoken
+                             WHERE accountid = :accountId
+                             ORDER BY expiry_date DESC
+                             LIMIT :keep))
+        """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "refreshtoken"))
+    int trimFamilies(@Param("accountId") Integer accountId, @Param("keep") int keep, @Param("now") Instant now);
+
+    // Dọn token hết hạn theo từng đợt nhỏ (job định kỳ) - đi theo index expiry_date, không khóa cả bảng
+    @Modifying
+    @Query(value = """
+        DELETE FROM refreshtoken
+        WHERE id IN (SELECT id FROM refreshtoken
+                     WHERE expiry_date <= :now
+                     ORDER BY expiry_date
+                     LIMIT :limit
+                     FOR UPDATE SKIP LOCKED)
+        """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "refreshtoken"))
+    int deleteExpiredChunk(@Param("now") Instant now, @Param("limit") int limit);
+
+    // Dọn lịch sử token đã xoay vòng của các họ không còn tồn tại (hết hạn / đăng xuất / bị thu hồi / bị bỏ bớt)
+    @Modifying
+    @Query(value = """
+        DELETE FROM refreshtoken_used
+        WHERE token_hash IN (SELECT h.token_hash FROM refreshtoken_used h
+                             WHERE NOT EXISTS (SELECT 1 FROM refreshtoken r WHERE r.family_id = h.family_id)
+                             LIMIT :limit
+                             FOR UPDATE SKIP LOCKED)
+        """, nativeQuery = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "refreshtoken_used"))
+    int deleteOrphanedUsedChunk(@Param("limit") int limit);
 
-    // Delete a token belonging to a specific user
-    void deleteByUserAccount(UserAccount userAccount);
-}
\ No newline at end of file
+    // Khóa advisory của PostgreSQL, tự nhả khi transaction kết thúc. false = instance khác đang giữ.
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryXactLock(@Param("key") long key);
+}
@@ -0,0 +1,115 @@
+package com.example.demoapi.repository;
+
+import com.example.demoapi.dto.HouseCount;
+import com.example.demoapi.dto.RequestRef;
+import com.example.demoapi.dto.response.RequestResponse;
+import com.example.demoapi.model.Request;
+import com.example.demoapi.model.RequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Các query danh sách dùng phân trang keyset: "requestid < :cursor ORDER BY requestid DESC"
+ * (trang đầu truyền cursor = Integer.MAX_VALUE). Không OFFSET, không COUNT(*),
+ * nên trang thứ 1000 nhanh như trang đầu. Pageable chỉ dùng để giới hạn số dòng.
+ */
+public interface RequestRepository extends JpaRepository<Request, Integer> {
+
+    String RESPONSE_SELECT = """
+        SELECT new com.example.demoapi.dto.response.RequestResponse(
+            r.requestid, r.title, r.content, r.status, r.adminresponse,
+            res.residentid, res.name, a.houseid, a.apartmentNumber,
+            r.createddate, r.resolveddate
+        )
+        FROM Request r
+        LEFT JOIN r.resident res
+        LEFT JOIN res.apartment a
+        """;
+
+    // Hộp thư Admin theo trạng thái - chạy trên index (status, requestid)
+    @Query(RESPONSE_SELECT + """
+        WHERE r.status = :status AND r.requestid < :cursor
+        ORDER BY r.requestid DESC
+        """)
+    List<RequestResponse> findInboxPage(
+            @Param("status") RequestStatus status,
+            @Param("cursor") Integer cursor,
+            Pageable pageable);
+
+    // Tất cả trạng thái - chạy trên khóa chính
+    @Query(RESPONSE_SELECT + """
+        WHERE r.requestid < :cursor
+        ORDER BY r.requestid DESC
+        """)
+    List<RequestResponse> findAllPage(@Param("cursor") Integer cursor, Pageable pageable);
+
+    // Yêu cầu của 1 căn hộ (cư dân xem) - số lượng nhỏ
+    @Query(RESPONSE_SELECT + """
+        WHERE a.houseid = :houseId
+          AND (:status IS NULL OR r.status = :status)
+          AND r.requestid < :cursor
+        ORDER BY r.requestid DESC
+        """)
+    List<RequestResponse> findHousePage(
+            @Param("houseId") Integer houseId,
+            @Param("status") RequestStatus status,
+            @Param("cursor") Integer cursor,
+            Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE r.requestid = :id")
+    Optional<RequestResponse> findResponseById(@Param("id") Integer id);
+
+    @Query("""
+        SELECT new com.example.demoapi.dto.RequestRef(r.requestid, r.status, a.houseid)
+        FROM Request r
+        LEFT JOIN r.resident res
+        LEFT JOIN res.apartment a
+        WHERE r.requestid IN :ids
+        """)
+    List<RequestRef> findRefsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Nạp bộ đếm yêu cầu chưa xử lý theo căn hộ
+    @Query("""
+        SELECT new com.example.demoapi.dto.HouseCount(a.houseid, COUNT(r))
+        FROM Request r
+        JOIN r.resident res
+        JOIN res.apartment a
+        WHERE r.status = :status
+        GROUP BY a.houseid
+        """)
+    List<HouseCount> countByHouseAndStatus(@Param("status") RequestStatus status);
+
+    // Như trên nhưng chỉ cho vài căn hộ (đếm lại sau khi ghi)
+    @Query("""
+        SELECT new com.example.demoapi.dto.HouseCount(a.houseid, COUNT(r))
+        FROM Request r
+        JOIN r.resident res
+        JOIN res.apartment a
+        WHERE r.status = :status AND a.houseid IN :houseIds
+        GROUP BY a.houseid
+        """)
+    List<HouseCount> countByHouseInAndStatus(@Param("houseIds") Collection<Integer> houseIds,
+                                             @Param("status") RequestStatus status);
+
+    // Chuyển trạng thái hàng loạt: chỉ các yêu cầu còn ở trạng thái `expected` (tránh xử lý trùng)
+    @Modifying
+    @Query("""
+        UPDATE Request r
+        SET r.status = :status, r.adminresponse = :adminResponse, r.resolveddate = :resolvedDate
+        WHERE r.requestid IN :ids AND r.status = :expected
+        """)
+    int updateStatus(
+            @Param("ids") Collection<Integer> ids,
+            @Param("status") RequestStatus status,
+            @Param("adminResponse") String adminResponse,
+            @Param("resolvedDate") LocalDateTime resolvedDate,
+            @Param("expected") RequestStatus expected);
+}
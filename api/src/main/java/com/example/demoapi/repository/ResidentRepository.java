@@ -1,12 +1,15 @@
 package com.example.demoapi.repository;
 
 import com.example.demoapi.model.Resident;
+import com.example.demoapi.model.ResidentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,8 +25,16 @@ public interface ResidentRepository extends JpaRepository<Resident, Integer> {
 
     List<Resident> findByApartment_Houseid(Integer id);
 
-    @Query("""
+    // Danh sách cư dân kèm căn hộ (hiển thị số phòng / tòa) - fetch join, không load từng căn một
+    @Query(value = """
         SELECT r FROM Resident r
+        LEFT JOIN FETCH r.apartment a
+        WHERE (:keyword IS NULL OR :keyword = ''
+           OR lower(r.name) LIKE lower(concat('%', :keyword, '%'))
+           OR r.phonenumber LIKE concat('%', :keyword, '%')
+           OR lower(a.apartmentNumber) LIKE lower(concat('%', :keyword, '%')))
+    """, countQuery = """
+        SELECT count(r) FROM Resident r
         LEFT JOIN r.apartment a
         WHERE (:keyword IS NULL OR :keyword = ''
            OR lower(r.name) LIKE lower(concat('%', :keyword, '%'))
@@ -31,4 +42,17 @@ public interface ResidentRepository extends JpaRepository<Resident, Integer> {
            OR lower(a.apartmentNumber) LIKE lower(concat('%', :keyword, '%')))
     """)
     Page<Resident> findAllResidents(@Param("keyword") String keyword, Pageable pageable);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE Resident r SET r.state = :state, r.version = r.version + 1 WHERE r.residentid IN :ids")
+    int updateStateByIdIn(@Param("ids") Collection<Integer> ids, @Param("state") ResidentStatus state);
+
+    // Dấu phiên bản tập cư dân của 1 căn hộ (ETag): md5 của danh sách (id:version) theo thứ tự id
+    // -> đổi khi thêm / chuyển đi / sửa bất kỳ ai trong hộ (tổng / đếm có thể trùng khi đổi người)
+    @Query(value = """
+        SELECT COALESCE(md5(string_agg(residentid || ':' || version, ',' ORDER BY residentid)), 'none')
+        FROM resident
+        WHERE houseid = :houseId
+    """, nativeQuery = true)
+    String findVersionStampByHouseId(@Param("houseId") Integer houseId);
+}
@@ -0,0 +1,161 @@
+package com.example.demoapi.repository;
+
+import com.example.demoapi.model.Invoice;
+import com.example.demoapi.model.Resident;
+import com.example.demoapi.util.SparseFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static java.util.Map.entry;
+
+/**
+ * Truy vấn danh sách theo ?fields= (xem SparseFields): cùng điều kiện lọc với findAllResidents / findAllInvoices /
+ * findHouseholdsByKeyword, nhưng mệnh đề SELECT chỉ gồm các cột được chọn và trả về Tuple thay vì entity / DTO.
+ */
+@Repository
+public class SparseListRepository {
+
+    // Tên trường giống ResidentResponse
+    public static final Map<String, String> RESIDENT_FIELDS = Map.ofEntries(
+            entry("id", "r.residentid"),
+            entry("name", "r.name"),
+            entry("dob", "r.dob"),
+            entry("phoneNumber", "r.phonenumber"),
+            entry("email", "r.email"),
+            entry("relationship", "r.relationship"),
+            entry("isHost", "r.isHost"),
+            entry("status", "r.state"),
+            entry("cccd", "r.cccd"),
+            entry("roomNumber", "coalesce(a.apartmentNumber, 'N/A')"),
+            entry("building", "coalesce(a.building, 'N/A')")
+    );
+
+    // Tên trường giống InvoiceResponse (details không có ở danh sách)
+    public static final Map<String, String> INVOICE_FIELDS = Map.ofEntries(
+            entry("id", "i.invoiceid"),
+            entry("title", "concat('Hóa đơn T', cast(i.month as String), '/', cast(i.year as String))"),
+            entry("roomNumber", "h.apartmentNumber"),
+            entry("month", "i.month"),
+            entry("year", "i.year"),
+            entry("dueDate", "i.duedate"),
+            entry("totalAmount", "i.totalamount"),
+            entry("status", "i.status")
+    );
+
+    // Tên trường giống HouseholdResponse
+    public static final Map<String, String> HOUSEHOLD_FIELDS = Map.ofEntries(
+            entry("id", "a.houseid"),
+            entry("roomNumber", "a.apartmentNumber"),
+            entry("ownerName", "owner.name"),
+            entry("area", "a.area"),
+            entry("memberCount", "(SELECT COUNT(m) FROM Resident m WHERE m.apartment.houseid = a.houseid)"),
+            entry("phoneNumber", "owner.phonenumber"),
+            entry("building", "a.building"),
+            entry("status", "a.status")
+    );
+
+    private static final String RESIDENT_FROM = """
+             FROM Resident r
+            LEFT JOIN r.apartment a
+            WHERE (:keyword IS NULL OR :keyword = ''
+               OR lower(r.name) LIKE lower(concat('%', :keyword, '%'))
+               OR r.phonenumber LIKE concat('%', :keyword, '%')
+               OR lower(a.apartmentNumber) LIKE lower(concat('%', :keyword, '%')))
+            """;
+
+    private static final String INVOICE_FROM = """
+             FROM Invoice i
+            LEFT JOIN i.houseid h
+            WHERE (:houseId IS NULL OR h.houseid = :houseId)
+              AND (:month IS NULL OR i.month = :month)
+              AND (:year IS NULL OR i.year = :year)
+              AND (:status IS NULL OR i.status = :status)
+              AND (:keyword IS NULL OR :keyword = '' OR h.apartmentNumber LIKE concat('%', :keyword, '%'))
+            """;
+
+    private static final String HOUSEHOLD_FROM = """
+             FROM Apartment a
+            LEFT JOIN Resident owner ON owner.apartment.houseid = a.houseid AND owner.isHost = true
+            WHERE (:search IS NULL OR :search = ''
+               OR lower(a.apartmentNumber) LIKE lower(concat('%', :search, '%'))
+               OR lower(owner.name) LIKE lower(concat('%', :search, '%')))
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public Page<Map<String, Object>> findResidents(SparseFields fields, String keyword, Pageable pageable) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT " + fields.selectClause() + RESIDENT_FROM + orderBy("r", Resident.class, pageable.getSort()),
+                Tuple.class);
+        query.setParameter("keyword", keyword);
+
+        TypedQuery<Long> countQuery = entityManager.createQuery("SELECT count(r)" + RESIDENT_FROM, Long.class);
+        countQuery.setParameter("keyword", keyword);
+
+        return page(fields, query, countQuery, pageable);
+    }
+
+    public Page<Map<String, Object>> findInvoices(SparseFields fields, Integer houseId, Integer month, Integer year,
+                                                  String status, String keyword, Pageable pageable) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT " + fields.selectClause() + INVOICE_FROM + orderBy("i", Invoice.class, pageable.getSort()),
+                Tuple.class);
+        TypedQuery<Long> countQuery = entityManager.createQuery("SELECT count(i)" + INVOICE_FROM, Long.class);
+        for (TypedQuery<?> q : List.of(query, countQuery)) {
+            q.setParameter("houseId", houseId);
+            q.setParameter("month", month);
+            q.setParameter("year", year);
+            q.setParameter("status", status);
+            q.setParameter("keyword", keyword);
+        }
+
+        return page(fields, query, countQuery, pageable);
+    }
+
+    public List<Map<String, Object>> findHouseholds(SparseFields fields, String search) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                "SELECT " + fields.selectClause() + HOUSEHOLD_FROM, Tuple.class);
+        query.setParameter("search", search);
+        return fields.toMaps(query.getResultList());
+    }
+
+    // --- Các hàm private ---
+
+    private static Page<Map<String, Object>> page(SparseFields fields, TypedQuery<Tuple> query,
+                                                  TypedQuery<Long> countQuery, Pageable pageable) {
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<Map<String, Object>> content = fields.toMaps(query.getResultList());
+        // Như Spring Data: bỏ qua COUNT khi trang đầu / trang cuối đã đủ biết tổng số
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::getSingleResult);
+    }
+
+    // sortBy đến từ client -> chỉ nhận tên thuộc tính có thật của entity (không ghép chuỗi tùy ý vào JPQL)
+    private String orderBy(String alias, Class<?> entityClass, Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+        for (Sort.Order order : sort) {
+            try {
+                entityManager.getMetamodel().entity(entityClass).getSingularAttribute(order.getProperty());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Không thể sắp xếp theo: " + order.getProperty());
+            }
+            orderBy.add(alias + "." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orderBy.toString();
+    }
+}
@@ -1,18 +1,27 @@
 package com.example.demoapi.repository;
 
+import com.example.demoapi.dto.RegistrationPeriod;
 import com.example.demoapi.model.RegistrationStatus;
 import com.example.demoapi.model.RegistrationType;
 import com.example.demoapi.model.TemporaryRegistration;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TemporaryRegistrationRepository extends JpaRepository<TemporaryRegistration, Integer> {
 
+    // Đơn kèm cư dân + căn hộ (sửa / duyệt đơn rồi trả về DTO)
+    @EntityGraph(attributePaths = {"resident", "apartment"})
+    Optional<TemporaryRegistration> findWithDetailsById(Integer id);
+
     // Lấy danh sách theo căn hộ (cho chủ hộ xem)
     List<TemporaryRegistration> findByApartment_Houseid(Integer houseId);
 
@@ -33,4 +42,50 @@ public interface TemporaryRegistrationRepository extends JpaRepository<Temporary
             @Param("type") RegistrationType type, // <--- THÊM THAM SỐ NÀY
             Pageable pageable
     );
+
+    // Nạp dữ liệu cho chỉ mục khoảng thời gian (chỉ lấy cột cần thiết, không load Entity)
+    @Query("""
+        SELECT new com.example.demoapi.dto.RegistrationPeriod(
+            t.id, r.residentid, a.houseid, a.building, t.type, t.status, t.startDate, t.endDate
+        )
+        FROM TemporaryRegistration t
+        JOIN t.resident r
+        JOIN t.apartment a
+        WHERE t.status IN :statuses
+    """)
+    List<RegistrationPeriod> findPeriodsByStatusIn(@Param("statuses") Collection<RegistrationStatus> statuses);
+
+    // Lấy đơn kèm cư dân + căn hộ theo danh sách ID (1 query)
+    @Query("""
+        SELECT t FROM TemporaryRegistration t
+        JOIN FETCH t.resident r
+        JOIN FETCH t.apartment a
+        WHERE t.id IN :ids
+    """)
+    List<TemporaryRegistration> findAllWithDetailsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("""
+        SELECT new com.example.demoapi.dto.RegistrationPeriod(
+            t.id, r.residentid, a.houseid, a.building, t.type, t.status, t.startDate, t.endDate
+        )
+        FROM TemporaryRegistration t
+        JOIN t.resident r
+        JOIN t.apartment a
+        WHERE t.id IN :ids
+    """)
+    List<RegistrationPeriod> findPeriodsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Duyệt / từ chối hàng loạt: chỉ cập nhật các đơn còn ở trạng thái `expected` (tránh xử lý trùng)
+    @Modifying
+    @Query("""
+        UPDATE TemporaryRegistration t
+        SET t.status = :status, t.note = :note
+        WHERE t.id IN :ids AND t.status = :expected
+    """)
+    int updateStatusAndNote(
+            @Param("ids") Collection<Integer> ids,
+            @Param("status") RegistrationStatus status,
+            @Param("note") String note,
+            @Param("expected") RegistrationStatus expected
+    );
 }
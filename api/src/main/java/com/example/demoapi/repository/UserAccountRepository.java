@@ -2,13 +2,32 @@ package com.example.demoapi.repository;
 
 import com.example.demoapi.model.Resident;
 import com.example.demoapi.model.UserAccount;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import jakarta.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Integer> {
     // Spring Data JPA tự hiểu: "Tìm một UserAccount bằng cột username"
+    // Gọi ở mọi request có JWT -> query cache (email -> id) + entity cache, tự hết hạn khi bảng useraccount bị ghi
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<UserAccount> findByEmail(String email);
 
+    // Tài khoản + cư dân + căn hộ trong 1 query (đăng nhập, xác định người gửi yêu cầu)
+    @EntityGraph(attributePaths = {"resident", "resident.apartment"})
+    Optional<UserAccount> findWithResidentByEmail(String email);
+
+    // Chỉ lấy ID căn hộ của người đang đăng nhập (phân quyền dữ liệu), không load Entity
+    @Query("SELECT a.houseid FROM UserAccount u JOIN u.resident r JOIN r.apartment a WHERE u.email = :email")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Optional<Integer> findHouseIdByEmail(@Param("email") String email);
+
     // Kiểm tra tồn tại
     Boolean existsByEmail(String email);
 
@@ -17,4 +36,30 @@ public interface UserAccountRepository extends JpaRepository<UserAccount, Intege
     void deleteByResident_Residentid(Integer residentId);
 
     void deleteByResident(Resident resident);
+
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
+    // Mật khẩu chưa băm ("{noop}..."), theo keyset accountid (xem LegacyPasswordMigrator)
+    interface LegacyPassword {
+        Integer getAccountid();
+        String getPassword();
+    }
+
+    @Query(value = """
+        SELECT accountid AS accountid, password AS password
+        FROM useraccount
+        WHERE password LIKE '{noop}%' AND accountid > :afterId
+        ORDER BY accountid
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<LegacyPassword> findLegacyPasswords(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    // Chỉ thay nếu mật khẩu chưa bị đổi trong lúc băm (đăng nhập tự nâng cấp / người dùng đổi mật khẩu)
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserAccount u SET u.password = :newPassword WHERE u.accountid = :id AND u.password = :oldPassword")
+    int replacePassword(@Param("id") Integer id, @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
 }
\ No newline at end of file
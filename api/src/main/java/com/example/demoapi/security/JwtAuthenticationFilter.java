@@ -44,8 +44,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // Đảm b
         final String username;
 
         try {
-            // 4. Dùng JwtService để lấy username từ token
-            username = jwtService.getUsernameFromAccessToken(jwt);
+            // 4. Dùng JwtService kiểm tra chữ ký + hạn dùng và lấy username (parse 1 lần duy nhất)
+            username = jwtService.parseAccessToken(jwt).getSubject();
         } catch (Exception e) {
             // Nếu token lỗi (hết hạn, sai chữ ký...), cứ cho đi tiếp
             // Các filter sau của Spring Security sẽ bắt và báo lỗi 401 Unauthorized
@@ -59,8 +59,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter { // Đảm b
             // 6. Tải thông tin User (role, v.v.) từ CSDL
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
-            // 7. Kiểm tra xem token có hợp lệ không
-            if (jwtService.validateAccessToken(jwt, userDetails)) {
+            // 7. Token đã được kiểm tra ở bước 4, chỉ cần chắc chắn đúng người
+            if (username.equals(userDetails.getUsername())) {
 
                 // 8. Nếu hợp lệ, tạo một token xác thực
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
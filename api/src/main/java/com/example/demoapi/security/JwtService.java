@@ -1,71 +1,143 @@
 package com.example.demoapi.security;
 
+import com.example.demoapi.config.JwtKeyProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 public class JwtService {
-    @Value("${jwt.access-token.secret}")
-    private String accessTokenSecret;
-    @Value("${jwt.access-token.expiration-ms}")
-    private long accessTokenExpiration;
 
+    private static final String DEFAULT_KID = "default";
+
+    private final long accessTokenExpiration;
+
+    // Khóa ký + bộ xác thực được tạo 1 lần lúc khởi động (không tạo lại Key / Parser mỗi request)
+    private final String activeKid;
+    private final Key activeKey;
+    private final Map<String, VerificationKey> verificationKeys;
+    private final VerificationKey legacyKey; // Token cũ (không có kid) ký bằng jwt.access-token.secret; null = không chấp nhận
+    private final JwtParser parser;
+
+    private record VerificationKey(Key key, Instant verifyUntil) {}
+
+    public JwtService(
+            JwtKeyProperties keyProperties,
+            @Value("${jwt.access-token.secret}") String legacySecret,
+            @Value("${jwt.access-token.expiration-ms}") long accessTokenExpiration
+    ) {
+        this.accessTokenExpiration = accessTokenExpiration;
+
+        Map<String, VerificationKey> keys = new HashMap<>();
+        for (JwtKeyProperties.SigningKey k : keyProperties.getKeys()) {
+            if (k.getKid() == null || k.getSecret() == null) {
+                throw new IllegalStateException("jwt.access-token.keys: mỗi khóa phải có kid và secret");
+            }
+            keys.put(k.getKid(), new VerificationKey(hmacKey(k.getSecret()), k.getVerifyUntil()));
+        }
+        Instant legacyVerifyUntil = keyProperties.getLegacyVerifyUntil();
+        if (keys.isEmpty()) {
+            // Cùng secret: token mới (kid "default") luôn hợp lệ, token không kid theo legacy-verify-until
+            Key key = hmacKey(legacySecret);
+            keys.put(DEFAULT_KID, new VerificationKey(key, null));
+            this.legacyKey = new VerificationKey(key, legacyVerifyUntil);
+        } else {
+            // Đã xoay vòng khóa: secret cũ chỉ còn hiệu lực khi được cho phép tường minh, có thời hạn
+            this.legacyKey = legacyVerifyUntil != null
+                    ? new VerificationKey(hmacKey(legacySecret), legacyVerifyUntil)
+                    : null;
+        }
+        this.verificationKeys = Map.copyOf(keys);
+
+        this.activeKid = keyProperties.getActiveKid() != null ? keyProperties.getActiveKid() : DEFAULT_KID;
+        VerificationKey active = verificationKeys.get(activeKid);
+        if (active == null) {
+            throw new IllegalStateException("jwt.access-token.active-kid '" + activeKid + "' không có trong danh sách khóa");
+        }
+        this.activeKey = active.key();
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
 
     // Tạo AccessToken
     public String generateAccessToken(UserDetails userDetails) {
         String role = userDetails.getAuthorities().iterator().next().getAuthority();
+        return generateAccessToken(userDetails.getUsername(), role);
+    }
 
+    // Tạo AccessToken khi đã biết sẵn username + role (VD: lúc refresh, không cần load UserDetails)
+    public String generateAccessToken(String username, String role) {
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
+                .setSubject(username)
                 .claim("role", role)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + accessTokenExpiration))
-                .signWith(getSigningKey(accessTokenSecret), SignatureAlgorithm.HS256)
+                .signWith(activeKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Kiểm tra chữ ký + hạn dùng và trả về claims (chỉ parse 1 lần). Token lỗi -> JwtException.
+    public Claims parseAccessToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     // Lấy username từ AccessToken
     public String getUsernameFromAccessToken(String token) {
-        return getClaim(token, accessTokenSecret, Claims::getSubject);
+        return parseAccessToken(token).getSubject();
     }
 
-
     public String getRoleFromAccessToken(String token) {
-        return getClaim(token, accessTokenSecret, (claims) -> claims.get("role", String.class));
+        return parseAccessToken(token).get("role", String.class);
     }
 
     // Kiểm tra AccessToken
     public boolean validateAccessToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromAccessToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token, accessTokenSecret));
+        try {
+            return userDetails.getUsername().equals(parseAccessToken(token).getSubject());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
-    // --- Các hàm private tiện ích (Giữ nguyên) ---
-    private <T> T getClaim(String token, String secret, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaims(token, secret);
-        return claimsResolver.apply(claims);
-    }
+    // --- Các hàm private tiện ích ---
 
-    private Claims getAllClaims(String token, String secret) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey(secret))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    private boolean isTokenExpired(String token, String secret) {
-        return getClaim(token, secret, Claims::getExpiration).before(new Date());
+    private Key resolveKey(String kid) {
+        VerificationKey key = kid == null ? legacyKey : verificationKeys.get(kid);
+        if (key == null) {
+            throw new JwtException(kid == null
+                    ? "Token không có kid không còn được chấp nhận"
+                    : "Không tìm thấy khóa ký với kid: " + kid);
+        }
+        if (key.verifyUntil() != null && Instant.now().isAfter(key.verifyUntil())) {
+            throw new JwtException("Khóa ký đã ngừng sử dụng: " + (kid != null ? kid : "(token không có kid)"));
+        }
+        return key.key();
     }
-    private Key getSigningKey(String secret) {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+
+    private static Key hmacKey(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.example.demoapi.security;
+
+import com.example.demoapi.exception.PasswordHashingBusyException;
+import com.example.demoapi.repository.UserAccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Băm lại bằng bcrypt mọi mật khẩu còn lưu thô ("{noop}...", do db/patches.sql gắn tiền tố cho dữ liệu cũ),
+ * kể cả tài khoản lâu không đăng nhập. Chạy 1 lần sau mỗi lần khởi động (không còn dòng nào thì chỉ tốn 1 câu SELECT).
+ * Băm qua BoundedPasswordEncoder, lần lượt từng tài khoản -> chỉ chiếm 1 luồng băm, không tranh CPU với đăng nhập.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LegacyPasswordMigrator {
+
+    private static final String NOOP_PREFIX = "{noop}";
+    private static final int CHUNK_SIZE = 100;
+    private static final long BUSY_BACKOFF_MS = 1000;
+
+    private final UserAccountRepository userAccountRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int afterId = 0;
+        int migrated = 0;
+        long startedAt = System.currentTimeMillis();
+        while (true) {
+            List<UserAccountRepository.LegacyPassword> chunk =
+                    userAccountRepository.findLegacyPasswords(afterId, CHUNK_SIZE);
+            for (UserAccountRepository.LegacyPassword row : chunk) {
+                String raw = row.getPassword().substring(NOOP_PREFIX.length());
+                String hashed = encode(raw);
+                if (hashed == null) {
+                    log.warn("Dừng băm lại mật khẩu cũ sau {} tài khoản, lần khởi động sau sẽ làm tiếp", migrated);
+                    return;
+                }
+                migrated += userAccountRepository.replacePassword(row.getAccountid(), row.getPassword(), hashed);
+                afterId = row.getAccountid();
+            }
+            if (chunk.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        if (migrated > 0) {
+            log.info("Đã băm lại {} mật khẩu lưu thô bằng bcrypt trong {} ms", migrated, System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    // Pool băm đang kín (đợt đăng nhập dồn dập) -> chờ rồi thử lại; null = bị dừng (shutdown)
+    private String encode(String raw) {
+        while (true) {
+            try {
+                return passwordEncoder.encode(raw);
+            } catch (PasswordHashingBusyException e) {
+                try {
+                    Thread.sleep(BUSY_BACKOFF_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+}
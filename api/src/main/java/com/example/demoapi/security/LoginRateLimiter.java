@@ -0,0 +1,120 @@
+package com.example.demoapi.security;
+
+import com.example.demoapi.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Giới hạn tần suất đăng nhập / đăng ký, tính trong bộ nhớ, chạy TRƯỚC mọi truy vấn DB và việc băm mật khẩu.
+ * - Mỗi khóa (IP, email) là 1 token bucket dạng GCRA: chỉ 1 AtomicLong "thời điểm đến dự kiến", cập nhật bằng CAS (không khóa).
+ * - Khóa được lưu trong nhiều "ngăn" (stripe) LRU có giới hạn: bộ nhớ cố định, khóa lâu không dùng bị bỏ trước,
+ *   và các request khác ngăn không tranh chấp nhau.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit emailLimit;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongSupplier clock;
+
+    // Giới hạn: `burst` request liên tiếp, sau đó trung bình 1 request mỗi `intervalNanos`
+    record Limit(long intervalNanos, long burstNanos) {
+        static Limit perMinute(int permitsPerMinute, int burst) {
+            long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, permitsPerMinute);
+            return new Limit(interval, interval * Math.max(0, burst - 1));
+        }
+    }
+
+    public LoginRateLimiter(
+            @Value("${security.rate-limit.enabled:true}") boolean enabled,
+            @Value("${security.rate-limit.ip.per-minute:30}") int ipPerMinute,
+            @Value("${security.rate-limit.ip.burst:10}") int ipBurst,
+            @Value("${security.rate-limit.email.per-minute:5}") int emailPerMinute,
+            @Value("${security.rate-limit.email.burst:5}") int emailBurst,
+            @Value("${security.rate-limit.max-keys:100000}") int maxKeys
+    ) {
+        this(enabled, Limit.perMinute(ipPerMinute, ipBurst), Limit.perMinute(emailPerMinute, emailBurst),
+                maxKeys, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, Limit ipLimit, Limit emailLimit, int maxKeys, LongSupplier clock) {
+        this.enabled = enabled;
+        this.ipLimit = ipLimit;
+        this.emailLimit = emailLimit;
+        this.clock = clock;
+        int perStripe = Math.max(1, maxKeys / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    // Ném RateLimitExceededException (429) nếu IP hoặc email vượt giới hạn
+    public void check(String ip, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (ip != null) {
+            acquire("ip:" + ip, ipLimit, now);
+        }
+        if (email != null && !email.isBlank()) {
+            acquire("email:" + email.trim().toLowerCase(Locale.ROOT), emailLimit, now);
+        }
+    }
+
+    // --- Các hàm private ---
+
+    private void acquire(String key, Limit limit, long now) {
+        AtomicLong tat = stripeFor(key).bucket(key, now);
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long next = base + limit.intervalNanos();
+            // Cho phép nếu "thời điểm đến dự kiến" không vượt quá now + burst
+            if (next - now > limit.burstNanos() + limit.intervalNanos()) {
+                long waitNanos = next - now - limit.burstNanos() - limit.intervalNanos();
+                throw new RateLimitExceededException(
+                        "Bạn thao tác quá nhanh, vui lòng thử lại sau",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+            if (tat.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (STRIPES - 1)];
+    }
+
+    // 1 ngăn: LinkedHashMap theo thứ tự truy cập, vượt sức chứa -> bỏ khóa lâu không dùng nhất
+    private static final class Stripe {
+        private final Map<String, AtomicLong> buckets;
+
+        Stripe(int capacity) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized AtomicLong bucket(String key, long now) {
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+    }
+}
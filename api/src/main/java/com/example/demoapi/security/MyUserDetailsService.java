@@ -6,14 +6,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserAccountRepository userAccountRepository;
 
@@ -35,4 +37,12 @@ public class MyUserDetailsService implements UserDetailsService {
                 Collections.singletonList(authority) // [ROLE_ADMIN] hoặc [ROLE_RESIDENT]
         );
     }
-}
\ No newline at end of file
+
+    // Spring Security gọi sau khi đăng nhập thành công nếu hash đang lưu đã cũ (VD: mật khẩu thô -> bcrypt)
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userAccountRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+}
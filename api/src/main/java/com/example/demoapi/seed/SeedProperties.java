@@ -0,0 +1,34 @@
+package com.example.demoapi.seed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Quy mô khu chung cư giả lập (profile "seed", xem application-seed.properties).
+ * Mặc định: 20 tòa x 40 tầng x 10 căn = 8.000 căn, 3 người/căn, 5 năm hóa đơn hàng tháng.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.seed")
+public class SeedProperties {
+
+    private int buildings = 20;
+    private int floors = 40;
+    private int apartmentsPerFloor = 10;
+    private int residentsPerApartment = 3;
+    private int months = 60;
+
+    // Mật khẩu chung của mọi tài khoản sinh ra (admin@seed.local + chủ hộ residentN@seed.local)
+    private String password = "Seed@123";
+
+    // Cố định -> lần chạy nào cũng sinh ra cùng 1 bộ dữ liệu
+    private long randomSeed = 42;
+
+    // true = TRUNCATE các bảng nghiệp vụ trước khi nạp (mặc định từ chối nạp vào DB đã có dữ liệu)
+    private boolean truncate = false;
+
+    public int apartments() {
+        return buildings * floors * apartmentsPerFloor;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demoapi.seed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Nạp khu chung cư giả lập quy mô lớn rồi thoát:
+ * <pre>
+ * ./gradlew bootRun --args='--spring.profiles.active=seed'
+ * ./gradlew bootRun --args='--spring.profiles.active=seed --app.seed.buildings=5 --app.seed.truncate=true'
+ * </pre>
+ * Mọi tài khoản dùng chung mật khẩu app.seed.password (admin@seed.local, residentN@seed.local).
+ */
+@Slf4j
+@Component
+@Profile("seed")
+@RequiredArgsConstructor
+public class SeedRunner implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final PasswordEncoder passwordEncoder;
+    private final SeedProperties seedProperties;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        log.info("Seed: {} tòa x {} tầng x {} căn, {} người/căn, {} tháng hóa đơn",
+                seedProperties.getBuildings(), seedProperties.getFloors(), seedProperties.getApartmentsPerFloor(),
+                seedProperties.getResidentsPerApartment(), seedProperties.getMonths());
+
+        // Băm mật khẩu 1 lần, dùng chung cho mọi tài khoản
+        String passwordHash = passwordEncoder.encode(seedProperties.getPassword());
+        SyntheticDataGenerator.Summary summary = new SyntheticDataGenerator(dataSource).generate(seedProperties, passwordHash);
+
+        log.info("Seed xong trong {} ms: {} căn hộ, {} cư dân, {} tài khoản, {} hóa đơn, {} chi tiết, {} thanh toán",
+                (System.nanoTime() - start) / 1_000_000, summary.apartments(), summary.residents(), summary.accounts(),
+                summary.invoices(), summary.invoiceDetails(), summary.payments());
+
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
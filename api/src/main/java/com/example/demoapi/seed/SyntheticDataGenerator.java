@@ -0,0 +1,338 @@
+package com.example.demoapi.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Nạp hàng loạt dữ liệu giả lập (căn hộ, cư dân, tài khoản, loại phí, hóa đơn + chi tiết, lịch sử thanh toán)
+ * bằng lệnh COPY của PostgreSQL (nhanh hơn INSERT theo lô hàng chục lần).
+ * - Chạy sau khi Hibernate đã tạo schema, trong 1 transaction (lỗi giữa chừng -> không để lại dữ liệu dở dang).
+ * - Id được gán tường minh (1..N) để nối khóa ngoại không cần đọc lại; cuối cùng đẩy sequence lên max(id).
+ * - Dữ liệu được ghi thẳng vào luồng COPY theo từng khối, không dựng toàn bộ bảng trong bộ nhớ.
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+    // Tài khoản chủ hộ đã tạo (load test đăng nhập bằng các tài khoản này)
+    public record SeededAccount(String email, int residentId, int houseId) {}
+
+    public record Summary(int apartments, int residents, int accounts, int invoices, int invoiceDetails, int payments,
+                          List<SeededAccount> hostAccounts) {}
+
+    private record FeeSeed(int id, String name, BigDecimal unitPrice, String unit) {}
+
+    private static final List<FeeSeed> FEES = List.of(
+            new FeeSeed(1, "Phí quản lý", BigDecimal.valueOf(15000), "m2"),
+            new FeeSeed(2, "Phí gửi xe", BigDecimal.valueOf(120000), "xe"),
+            new FeeSeed(3, "Tiền nước", BigDecimal.valueOf(15000), "m3"),
+            new FeeSeed(4, "Tiền điện", BigDecimal.valueOf(3000), "kWh"));
+
+    private static final String[] PAYMENT_METHODS = {"MOCK_BANKING", "VNPAY", "MOMO", "CASH"};
+
+    // Các bảng do generator nạp (thứ tự = thứ tự TRUNCATE an toàn với khóa ngoại khi kèm CASCADE)
+    private static final String[][] SEQUENCES = {
+            {"fee", "feeid"}, {"apartment", "houseid"}, {"resident", "residentid"}, {"useraccount", "accountid"},
+            {"invoice", "invoiceid"}, {"invoicedetail", "id"}, {"payment", "paymentid"}};
+
+    private final DataSource dataSource;
+
+    public SyntheticDataGenerator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public Summary generate(SeedProperties scale, String passwordHash) {
+        Random random = new Random(scale.getRandomSeed());
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+                if (scale.isTruncate()) {
+                    truncate(connection);
+                } else {
+                    ensureEmpty(connection);
+                }
+
+                Summary summary = load(copyManager, scale, passwordHash, random);
+
+                try (Statement st = connection.createStatement()) {
+                    // Đẩy sequence của cột identity lên sau id lớn nhất (app insert tiếp không bị trùng khóa)
+                    for (String[] seq : SEQUENCES) {
+                        st.execute("SELECT setval(pg_get_serial_sequence('" + seq[0] + "', '" + seq[1] + "'), "
+                                + "COALESCE((SELECT MAX(" + seq[1] + ") FROM " + seq[0] + "), 0) + 1, false)");
+                    }
+                }
+                connection.commit();
+
+                // Cập nhật thống kê cho planner (ngoài transaction nạp)
+                try (Statement st = connection.createStatement()) {
+                    for (String[] seq : SEQUENCES) {
+                        st.execute("ANALYZE " + seq[0]);
+                    }
+                }
+                connection.commit();
+                return summary;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Nạp dữ liệu giả lập thất bại: " + e.getMessage(), e);
+        }
+    }
+
+    // --- Các hàm private ---
+
+    private Summary load(CopyManager copyManager, SeedProperties scale, String passwordHash, Random random) throws SQLException {
+        // 1. Loại phí
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY fee (feeid, feename, unitprice, unit, billingcycle, is_mandatory) FROM STDIN (FORMAT csv)")) {
+            for (FeeSeed fee : FEES) {
+                out.row(fee.id(), fee.name(), fee.unitPrice(), fee.unit(), "MONTHLY", true);
+            }
+        }
+
+        // 2. Căn hộ
+        int apartments = scale.apartments();
+        double[] areas = new double[apartments + 1];
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY apartment (houseid, building, floor, area, status, type, apartment_number) FROM STDIN (FORMAT csv)")) {
+            int houseId = 0;
+            for (int b = 0; b < scale.getBuildings(); b++) {
+                String building = buildingName(b);
+                for (int floor = 1; floor <= scale.getFloors(); floor++) {
+                    for (int n = 1; n <= scale.getApartmentsPerFloor(); n++) {
+                        houseId++;
+                        areas[houseId] = 45 + random.nextInt(80);
+                        out.row(houseId, building, floor, areas[houseId], "OCCUPIED",
+                                floor == 1 ? "KIOT" : floor == scale.getFloors() ? "PENTHOUSE" : "NORMAL",
+                                building + "-" + floor + String.format("%02d", n));
+                    }
+                }
+            }
+        }
+
+        // 3. Cư dân (người đầu tiên của mỗi căn là chủ hộ) + tài khoản cho chủ hộ + 1 admin
+        List<SeededAccount> hosts = new ArrayList<>(apartments);
+        int residents = 0;
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY resident (residentid, houseid, name, phonenumber, email, dob, state, startdate, is_host, relationship) "
+                        + "FROM STDIN (FORMAT csv)")) {
+            for (int houseId = 1; houseId <= apartments; houseId++) {
+                for (int r = 0; r < scale.getResidentsPerApartment(); r++) {
+                    residents++;
+                    boolean host = r == 0;
+                    String email = "resident" + residents + "@seed.local";
+                    out.row(residents, houseId, "Cư dân " + residents, String.format("09%08d", residents), email,
+                            LocalDate.of(1955 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                            "THUONG_TRU", YearMonth.now().minusMonths(scale.getMonths()).atDay(1), host,
+                            host ? "Chủ hộ" : "Thành viên");
+                    if (host) {
+                        hosts.add(new SeededAccount(email, residents, houseId));
+                    }
+                }
+            }
+        }
+
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY useraccount (accountid, email, password, role, residentid) FROM STDIN (FORMAT csv)")) {
+            out.row(1, "admin@seed.local", passwordHash, "ADMIN", null);
+            for (int i = 0; i < hosts.size(); i++) {
+                SeededAccount account = hosts.get(i);
+                out.row(i + 2, account.email(), passwordHash, "RESIDENT", account.residentId());
+            }
+        }
+
+        // 4. Hóa đơn hàng tháng + chi tiết + lịch sử thanh toán.
+        //    Mỗi kết nối chỉ mở được 1 lệnh COPY -> nạp lần lượt từng bảng, bảng cha trước (invoice -> invoicedetail
+        //    -> payment: khóa ngoại không DEFERRABLE, kiểm tra ngay từng dòng); số liệu của mỗi căn được sinh lại
+        //    giống hệt ở mỗi lượt nhờ Random riêng theo căn (không phải giữ 5 năm hóa đơn trong bộ nhớ).
+        int months = scale.getMonths();
+        int invoices = apartments * months;
+        int details = invoices * FEES.size();
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY invoice (invoiceid, houseid, month, year, duedate, totalamount, status) FROM STDIN (FORMAT csv)")) {
+            for (int houseId = 1; houseId <= apartments; houseId++) {
+                for (MonthPlan plan : planHouse(scale, houseId, areas[houseId])) {
+                    out.row(plan.invoiceId(), houseId, plan.period().getMonthValue(), plan.period().getYear(),
+                            plan.dueDate(), plan.total(), plan.status());
+                }
+            }
+        }
+
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY invoicedetail (id, invoiceid, feeid, quantity, amount) FROM STDIN (FORMAT csv)")) {
+            for (int houseId = 1; houseId <= apartments; houseId++) {
+                for (MonthPlan plan : planHouse(scale, houseId, areas[houseId])) {
+                    for (int f = 0; f < FEES.size(); f++) {
+                        out.row((plan.invoiceId() - 1) * FEES.size() + f + 1, plan.invoiceId(), FEES.get(f).id(),
+                                plan.quantities()[f], plan.amounts()[f]);
+                    }
+                }
+            }
+        }
+
+        int payments = 0;
+        try (CopyWriter out = new CopyWriter(copyManager,
+                "COPY payment (paymentid, invoiceid, paymentdate, amountpaid, paymentmethod, transactionstatus, onlinetransactionid) "
+                        + "FROM STDIN (FORMAT csv)")) {
+            for (int houseId = 1; houseId <= apartments; houseId++) {
+                for (MonthPlan plan : planHouse(scale, houseId, areas[houseId])) {
+                    if (plan.paidAmount() != null) {
+                        payments++;
+                        out.row(payments, plan.invoiceId(), plan.paidAt(), plan.paidAmount(), plan.paymentMethod(),
+                                "SUCCESS", "SEED-" + payments);
+                    }
+                }
+            }
+        }
+
+        return new Summary(apartments, residents, hosts.size() + 1, invoices, details, payments, hosts);
+    }
+
+    private record MonthPlan(int invoiceId, YearMonth period, LocalDate dueDate, double[] quantities, BigDecimal[] amounts,
+                             BigDecimal total, String status, BigDecimal paidAmount, String paidAt, String paymentMethod) {}
+
+    // Hóa đơn của 1 căn qua các tháng (cũ -> mới). Tháng hiện tại: chưa trả; tháng trước: 1/3 số căn chưa trả
+    // hoặc trả 1 phần; còn lại: đã trả đủ (mỗi hóa đơn đã trả có 1 giao dịch).
+    private List<MonthPlan> planHouse(SeedProperties scale, int houseId, double area) {
+        Random random = new Random(scale.getRandomSeed() * 31 + houseId);
+        int months = scale.getMonths();
+        YearMonth current = YearMonth.now();
+        List<MonthPlan> plans = new ArrayList<>(months);
+        for (int m = months - 1; m >= 0; m--) {
+            YearMonth period = current.minusMonths(m);
+            double[] quantities = {area, 1 + random.nextInt(2), 5 + random.nextInt(20), 100 + random.nextInt(400)};
+            BigDecimal[] amounts = new BigDecimal[FEES.size()];
+            BigDecimal total = BigDecimal.ZERO;
+            for (int f = 0; f < FEES.size(); f++) {
+                amounts[f] = FEES.get(f).unitPrice().multiply(BigDecimal.valueOf(quantities[f])).setScale(2, RoundingMode.HALF_UP);
+                total = total.add(amounts[f]);
+            }
+
+            String status = "paid";
+            if (m == 0) {
+                status = "unpaid";
+            } else if (m == 1 && random.nextInt(3) == 0) {
+                status = random.nextBoolean() ? "unpaid" : "partial";
+            }
+
+            LocalDate dueDate = period.plusMonths(1).atDay(10);
+            BigDecimal paidAmount = switch (status) {
+                case "paid" -> total;
+                case "partial" -> total.divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+                default -> null;
+            };
+            String paidAt = dueDate.minusDays(random.nextInt(10)).atTime(8 + random.nextInt(12), random.nextInt(60)) + ":00+07";
+            String method = PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)];
+
+            int invoiceId = (houseId - 1) * months + (months - m);
+            plans.add(new MonthPlan(invoiceId, period, dueDate, quantities, amounts, total, status, paidAmount, paidAt, method));
+        }
+        return plans;
+    }
+
+    private void ensureEmpty(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             var rs = st.executeQuery("SELECT EXISTS (SELECT 1 FROM apartment) OR EXISTS (SELECT 1 FROM useraccount)")) {
+            rs.next();
+            if (rs.getBoolean(1)) {
+                throw new IllegalStateException("DB đã có dữ liệu - dùng app.seed.truncate=true để xóa sạch trước khi nạp");
+            }
+        }
+    }
+
+    private void truncate(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            StringBuilder tables = new StringBuilder();
+            for (String[] seq : SEQUENCES) {
+                tables.append(tables.isEmpty() ? "" : ", ").append(seq[0]);
+            }
+            st.execute("TRUNCATE " + tables + " RESTART IDENTITY CASCADE");
+        }
+    }
+
+    private static String buildingName(int index) {
+        // A..Z, rồi A1, B1...
+        char letter = (char) ('A' + index % 26);
+        return index < 26 ? String.valueOf(letter) : letter + String.valueOf(index / 26);
+    }
+
+    // Ghi dữ liệu CSV vào 1 lệnh COPY ... FROM STDIN theo từng khối 64KB
+    private static final class CopyWriter implements AutoCloseable {
+
+        private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+
+        CopyWriter(CopyManager copyManager, String sql) throws SQLException {
+            this.copyIn = copyManager.copyIn(sql);
+        }
+
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                appendValue(values[i]);
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+                long rows = copyIn.endCopy();
+                log.debug("COPY: {} dòng", rows);
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+
+        private void appendValue(Object value) {
+            if (value == null) {
+                return; // CSV: ô rỗng không có dấu nháy = NULL
+            }
+            String text = value instanceof BigDecimal d ? d.toPlainString() : value.toString();
+            if (text.isEmpty() || text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+                buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                buffer.append(text);
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+}
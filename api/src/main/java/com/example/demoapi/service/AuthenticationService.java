@@ -4,6 +4,7 @@ import com.example.demoapi.dto.LoginRequest;
 import com.example.demoapi.dto.LoginResponse;
 import com.example.demoapi.dto.RefreshTokenResponse;
 import com.example.demoapi.dto.request.RegisterRequest;
+import com.example.demoapi.exception.InvalidRefreshTokenException;
 import com.example.demoapi.model.Resident;
 import com.example.demoapi.model.UserAccount;
 import com.example.demoapi.repository.ResidentRepository;
@@ -16,7 +17,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,7 +29,6 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final UserAccountRepository userAccountRepository; // Dùng repo này để lấy full thông tin Resident
-    private final UserDetailsService userDetailsService;
     private final ResidentRepository residentRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -49,7 +48,7 @@ public class AuthenticationService {
     }
 
     // --- 1. LOGIN LOGIC ---
-    public AuthResult login(LoginRequest request) {
+    public AuthResult login(LoginRequest request, String device) {
         // A. Xác thực
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.email(), request.password())
@@ -59,10 +58,10 @@ public class AuthenticationService {
 
         // B. Tạo Token
         String accessToken = jwtService.generateAccessToken(userDetails);
-        String refreshToken = refreshTokenService.createRefreshToken(userDetails.getUsername());
+        String refreshToken = refreshTokenService.createRefreshToken(userDetails.getUsername(), device);
 
-        // C. Lấy thông tin chi tiết từ DB để build JSON response đẹp
-        UserAccount userAccount = userAccountRepository.findByEmail(request.email())
+        // C. Lấy thông tin chi tiết từ DB để build JSON response đẹp (tài khoản + cư dân + căn hộ, 1 query)
+        UserAccount userAccount = userAccountRepository.findWithResidentByEmail(request.email())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // D. Mapping dữ liệu (UserAccount -> LoginResponse)
@@ -75,14 +74,17 @@ public class AuthenticationService {
     }
 
     // --- 2. REFRESH LOGIC ---
-    @Transactional
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
     public RefreshResult refreshToken(String oldRefreshToken) {
-        // A. Xoay vòng token
+        // A. Xoay vòng token (trả về luôn email + role, không cần query lại user)
         RefreshTokenService.RotationResult rotationResult = refreshTokenService.rotateRefreshToken(oldRefreshToken);
 
         // B. Tạo Access Token mới
-        UserDetails userDetails = userDetailsService.loadUserByUsername(rotationResult.username());
-        String newAccessToken = jwtService.generateAccessToken(userDetails);
+        String role = rotationResult.role();
+        if (!role.startsWith("ROLE_")) {
+            role = "ROLE_" + role;
+        }
+        String newAccessToken = jwtService.generateAccessToken(rotationResult.username(), role);
 
         return RefreshResult.builder()
                 .responseBody(new RefreshTokenResponse(newAccessToken))
@@ -4,10 +4,13 @@ import com.example.demoapi.dto.request.FeeRequest;
 import com.example.demoapi.model.Fee;
 import com.example.demoapi.repository.FeeRepository;
 import com.example.demoapi.repository.InvoiceDetailRepository;
+import com.example.demoapi.util.ETags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class FeeService {
@@ -15,6 +18,17 @@ public class FeeService {
     private final FeeRepository feeRepository;
     private final InvoiceDetailRepository invoiceDetailRepository;
 
+    // Danh sách loại phí (read-only -> đọc từ replica nếu có)
+    @Transactional(readOnly = true)
+    public List<Fee> getAllFees() {
+        return feeRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public String getFeesEtag() {
+        return ETags.of("fees", feeRepository.findVersionStamp());
+    }
+
     @Transactional
     public Fee createFee(FeeRequest request) {
         // 1. Validate trùng tên
@@ -0,0 +1,152 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.response.HomeResponse;
+import com.example.demoapi.dto.response.HouseholdResponse;
+import com.example.demoapi.dto.response.InvoiceResponse;
+import com.example.demoapi.dto.response.RegistrationResponse;
+import com.example.demoapi.dto.response.ResidentResponse;
+import com.example.demoapi.exception.HomeLoadTimeoutException;
+import com.example.demoapi.metrics.RequestMetricsContext;
+import com.example.demoapi.repository.UserAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Trang chủ cư dân trong 1 request: xác định căn hộ của người gọi 1 lần, rồi tải song song
+ * chi tiết hộ, thành viên, hóa đơn và đơn đăng ký (mỗi phần 1 transaction read-only riêng).
+ * - Pool riêng có giới hạn: mỗi task giữ 1 connection DB trong lúc chạy -> số thread = số connection tối đa endpoint này chiếm.
+ * - Hàng đợi đầy -> task chạy luôn trên thread của request (CallerRunsPolicy): chậm hơn nhưng không lỗi.
+ * - Quá `timeout` -> HomeLoadTimeoutException (503).
+ */
+@Service
+public class HomeService {
+
+    private static final int MAX_SIZE = 50;
+
+    private final UserAccountRepository userAccountRepository;
+    private final HouseholdService householdService;
+    private final InvoiceService invoiceService;
+    private final RegistrationService registrationService;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    public HomeService(
+            UserAccountRepository userAccountRepository,
+            HouseholdService householdService,
+            InvoiceService invoiceService,
+            RegistrationService registrationService,
+            MeterRegistry meterRegistry,
+            @Value("${app.home.threads:4}") int threads,
+            @Value("${app.home.queue-capacity:64}") int queueCapacity,
+            @Value("${app.home.timeout-ms:5000}") long timeoutMs
+    ) {
+        this.userAccountRepository = userAccountRepository;
+        this.householdService = householdService;
+        this.invoiceService = invoiceService;
+        this.registrationService = registrationService;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "home-loader-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // executor_active_threads / executor_queued_tasks... với tag name="home"
+        new ExecutorServiceMetrics(executor, "home", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    // size: số hóa đơn / đơn đăng ký mới nhất trả về (như tham số size của 2 API danh sách)
+    public HomeResponse getHome(String email, int size) {
+        // 1. Xác định căn hộ 1 lần (chỉ lấy ID) -> không cần kiểm tra quyền từng phần như các API lẻ
+        Integer houseId = userAccountRepository.findHouseIdByEmail(email).orElse(null);
+        if (houseId == null) {
+            return HomeResponse.builder()
+                    .members(List.of())
+                    .invoices(List.of())
+                    .registrations(List.of())
+                    .build();
+        }
+
+        // 2. Tải song song 4 phần
+        int limit = Math.max(1, Math.min(size, MAX_SIZE));
+        CompletableFuture<HouseholdResponse> household = load(() -> householdService.getHouseholdById(houseId));
+        CompletableFuture<List<ResidentResponse>> members = load(() -> householdService.getHouseholdMembers(houseId));
+        CompletableFuture<List<InvoiceResponse>> invoices = load(() -> invoiceService.getAllInvoices(
+                houseId, null, null, null, null,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "year", "month"))).getContent());
+        CompletableFuture<List<RegistrationResponse>> registrations = load(() -> registrationService.getAllRequests(
+                houseId, null, null,
+                PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "id"))).getContent());
+
+        // 3. Chờ đủ cả 4 rồi gộp
+        await(household, members, invoices, registrations);
+        return HomeResponse.builder()
+                .houseId(houseId)
+                .household(household.join())
+                .members(members.join())
+                .invoices(invoices.join())
+                .registrations(registrations.join())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // --- Các hàm private ---
+
+    // Số câu SQL của task vẫn được cộng vào request gốc (RequestMetricsFilter / QueryBudgetChecker)
+    private <T> CompletableFuture<T> load(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(RequestMetricsContext.propagate(task), executor);
+    }
+
+    private void await(CompletableFuture<?>... futures) {
+        try {
+            CompletableFuture.allOf(futures).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(futures);
+            throw new HomeLoadTimeoutException("Tải dữ liệu trang chủ quá lâu, vui lòng thử lại sau giây lát");
+        } catch (InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new HomeLoadTimeoutException("Yêu cầu bị hủy trong lúc tải dữ liệu trang chủ");
+        } catch (ExecutionException e) {
+            // Lỗi nghiệp vụ của 1 phần (VD: không tìm thấy hộ khẩu) -> ném lại nguyên bản như API lẻ
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Task chưa chạy sẽ bị bỏ qua; task đang chạy vẫn chạy nốt (CompletableFuture không ngắt thread)
+    private static void cancel(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
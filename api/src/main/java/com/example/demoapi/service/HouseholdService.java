@@ -9,7 +9,10 @@ import com.example.demoapi.model.*;
 import com.example.demoapi.repository.ApartmentRepository;
 import com.example.demoapi.repository.InvoiceRepository;
 import com.example.demoapi.repository.ResidentRepository;
+import com.example.demoapi.repository.SparseListRepository;
 import com.example.demoapi.repository.UserAccountRepository;
+import com.example.demoapi.util.ETags;
+import com.example.demoapi.util.SparseFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -28,11 +32,38 @@ public class HouseholdService {
     private final ResidentRepository residentRepository;
     private final InvoiceRepository invoiceRepository;
     private final UserAccountRepository userAccountRepository;
+    private final SparseListRepository sparseListRepository;
 
+    @Transactional(readOnly = true)
     public List<HouseholdResponse> getHouseholds(String search) {
         return apartmentRepository.findHouseholdsByKeyword(search);
     }
 
+    // ?fields=...: chỉ SELECT các cột được chọn
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getHouseholds(String search, String fields) {
+        return sparseListRepository.findHouseholds(
+                SparseFields.parse(fields, SparseListRepository.HOUSEHOLD_FIELDS), search);
+    }
+
+    // ETag chi tiết hộ: version căn hộ + dấu phiên bản các cư dân (chủ hộ, số thành viên)
+    @Transactional(readOnly = true)
+    public String getHouseholdEtag(Integer id) {
+        Long version = apartmentRepository.findVersionById(id)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy hộ khẩu với ID: " + id));
+        return ETags.of("household", id, version, residentRepository.findVersionStampByHouseId(id));
+    }
+
+    // ETag danh sách thành viên: chỉ phụ thuộc các cư dân của hộ
+    @Transactional(readOnly = true)
+    public String getHouseholdMembersEtag(Integer householdId) {
+        if (apartmentRepository.findVersionById(householdId).isEmpty()) {
+            throw new RuntimeException("Hộ khẩu không tồn tại!");
+        }
+        return ETags.of("members", householdId, residentRepository.findVersionStampByHouseId(householdId));
+    }
+
+    @Transactional(readOnly = true)
     public HouseholdResponse getHouseholdById(Integer id) {
         return apartmentRepository.findHouseholdDetailById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy hộ khẩu với ID: " + id));
@@ -186,6 +217,7 @@ public class HouseholdService {
         apartmentRepository.delete(apartment);
     }
 
+    @Transactional(readOnly = true)
     public List<ResidentResponse> getHouseholdMembers(Integer householdId) {
         // 1. Kiểm tra hộ khẩu có tồn tại không (Optional)
         if (!apartmentRepository.existsById(householdId)) {
@@ -351,6 +383,7 @@ public class HouseholdService {
                 .cccd(savedMember.getCccd())
                 .build();
     }
+    @Transactional(readOnly = true)
     public Page<ResidentResponse> getAllResidents(String keyword, Pageable pageable) {
         // 1. Gọi Repo lấy danh sách Entity có phân trang
         Page<Resident> residentPage = residentRepository.findAllResidents(keyword, pageable);
@@ -372,6 +405,13 @@ public class HouseholdService {
                 .build());
     }
 
+    // ?fields=...: chỉ SELECT các cột được chọn, không load entity
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllResidents(String keyword, Pageable pageable, String fields) {
+        return sparseListRepository.findResidents(
+                SparseFields.parse(fields, SparseListRepository.RESIDENT_FIELDS), keyword, pageable);
+    }
+
     @Transactional
     public void deleteResident(Integer residentId) {
         // 1. Tìm cư dân
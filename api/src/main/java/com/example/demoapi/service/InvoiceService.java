@@ -4,8 +4,11 @@ import com.example.demoapi.dto.request.CreateInvoiceRequest;
 import com.example.demoapi.dto.request.FeeItemRequest;
 import com.example.demoapi.dto.response.InvoiceDetailResponse;
 import com.example.demoapi.dto.response.InvoiceResponse;
+import com.example.demoapi.event.InvoiceChangedEvent;
 import com.example.demoapi.model.*;
 import com.example.demoapi.repository.*;
+import com.example.demoapi.util.ETags;
+import com.example.demoapi.util.SparseFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +19,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +31,8 @@ public class InvoiceService {
     private final FeeRepository feeRepository;
     private final ApartmentRepository apartmentRepository;
     private final PaymentRepository paymentRepository;
+    private final OutboxService outboxService;
+    private final SparseListRepository sparseListRepository;
 
     // 1. TẠO HÓA ĐƠN MỚI
     @Transactional
@@ -79,22 +85,45 @@ public class InvoiceService {
         savedInvoice.setTotalamount(grandTotal);
         invoiceRepository.save(savedInvoice);
 
+        recordInvoiceEvent(DomainEventType.INVOICE_CREATED, savedInvoice);
+
         return mapToResponse(savedInvoice, detailsEntities);
     }
 
+    // ETag của chi tiết hóa đơn: version hóa đơn + version căn hộ (số phòng)
+    // + dấu phiên bản bảng phí (tên / đơn giá phí hiển thị trong chi tiết)
+    @Transactional(readOnly = true)
+    public String getInvoiceEtag(Integer id) {
+        String versions = invoiceRepository.findVersionStampById(id)
+                .orElseThrow(() -> new RuntimeException("Hóa đơn không tồn tại"));
+        return ETags.of("invoice", id, versions, feeRepository.findVersionStamp());
+    }
+
     // 2. LẤY CHI TIẾT HÓA ĐƠN
+    @Transactional(readOnly = true)
     public InvoiceResponse getInvoiceById(Integer id) {
         Invoice invoice = invoiceRepository.findById(Long.valueOf(id))
                 .orElseThrow(() -> new RuntimeException("Hóa đơn không tồn tại"));
 
-        // Lấy list detail từ DB
-        List<Invoicedetail> details = invoiceDetailRepository.findByInvoiceid(invoice);
+        // Lấy list detail (kèm loại phí) từ DB
+        List<Invoicedetail> details = invoiceDetailRepository.findWithFeeByInvoiceid(invoice);
 
         return mapToResponse(invoice, details);
     }
 
-    // Helper: Map Entity -> Response
-    private InvoiceResponse mapToResponse(Invoice invoice, List<Invoicedetail> details) {
+    // Helper: ghi sự kiện hóa đơn vào outbox (cùng transaction)
+    private void recordInvoiceEvent(DomainEventType type, Invoice invoice) {
+        outboxService.record(type, "Invoice", invoice.getInvoiceid(), new InvoiceChangedEvent(
+                invoice.getInvoiceid(),
+                invoice.getHouseid().getHouseid(),
+                invoice.getMonth(),
+                invoice.getYear(),
+                invoice.getStatus(),
+                invoice.getTotalamount()));
+    }
+
+    // Helper: Map Entity -> Response (package-private static để benchmark gọi trực tiếp, xem src/jmh)
+    static InvoiceResponse mapToResponse(Invoice invoice, List<Invoicedetail> details) {
         List<InvoiceDetailResponse> detailResponses = details.stream()
                 .map(d -> InvoiceDetailResponse.builder()
                         .id(d.getId()) // Lưu ý: Entity của bạn đặt tên ID là paymentid
@@ -133,14 +162,17 @@ public class InvoiceService {
         detail.setAmount(newAmount);
         invoiceDetailRepository.save(detail);
 
-        // 3. --- QUAN TRỌNG: TÍNH LẠI TỔNG TIỀN HÓA ĐƠN CHA ---
-        Invoice invoice = detail.getInvoiceid();
+        // 3. --- QUAN TRỌNG: TÍNH LẠI TỔNG TIỀN HÓA ĐƠN CHA --- (version luôn tăng để ETag của hóa đơn đổi theo)
+        Invoice invoice = invoiceRepository.findWithVersionBumpById(detail.getInvoiceid().getInvoiceid())
+                .orElseThrow(() -> new RuntimeException("Hóa đơn không tồn tại"));
 
         // Query DB để tính tổng lại toàn bộ các detail của hóa đơn này
         BigDecimal newTotal = invoiceDetailRepository.sumAmountByInvoiceId(invoice.getInvoiceid());
 
         invoice.setTotalamount(newTotal);
         invoiceRepository.save(invoice);
+
+        recordInvoiceEvent(DomainEventType.INVOICE_UPDATED, invoice);
     }
 
     @Transactional
@@ -165,6 +197,8 @@ public class InvoiceService {
         invoiceDetailRepository.deleteAll(details);
 
         invoiceRepository.delete(invoice);
+
+        recordInvoiceEvent(DomainEventType.INVOICE_DELETED, invoice);
     }
 
     @Transactional
@@ -177,6 +211,7 @@ public class InvoiceService {
         }
 
         Invoice saved = invoiceRepository.save(invoice);
+        recordInvoiceEvent(DomainEventType.INVOICE_UPDATED, saved);
         return getInvoiceById(saved.getInvoiceid());
     }
 
@@ -186,7 +221,8 @@ public class InvoiceService {
         Invoicedetail detail = invoiceDetailRepository.findById(detailId) // Nhớ là tên entity của bạn ID là paymentid hay id check lại nhé
                 .orElseThrow(() -> new RuntimeException("Chi tiết phí không tồn tại"));
 
-        Invoice invoice = detail.getInvoiceid();
+        Invoice invoice = invoiceRepository.findWithVersionBumpById(detail.getInvoiceid().getInvoiceid())
+                .orElseThrow(() -> new RuntimeException("Hóa đơn không tồn tại"));
 
         // Chỉ cho phép xóa chi tiết nếu hóa đơn chưa đóng xong (tùy nghiệp vụ)
         if ("paid".equalsIgnoreCase(invoice.getStatus())) {
@@ -202,8 +238,11 @@ public class InvoiceService {
 
         invoice.setTotalamount(newTotal);
         invoiceRepository.save(invoice);
+
+        recordInvoiceEvent(DomainEventType.INVOICE_UPDATED, invoice);
     }
 
+    @Transactional(readOnly = true)
     public Page<InvoiceResponse> getAllInvoices(
             Integer houseId, Integer month, Integer year, String status, String keyword, Pageable pageable
     ) {
@@ -227,4 +266,13 @@ public class InvoiceService {
                     .build();
         });
     }
+
+    // ?fields=...: chỉ SELECT các cột được chọn, không load entity
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllInvoices(
+            Integer houseId, Integer month, Integer year, String status, String keyword, Pageable pageable, String fields
+    ) {
+        return sparseListRepository.findInvoices(SparseFields.parse(fields, SparseListRepository.INVOICE_FIELDS),
+                houseId, month, year, status, keyword, pageable);
+    }
 }
\ No newline at end of file
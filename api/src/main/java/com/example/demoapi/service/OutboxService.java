@@ -0,0 +1,65 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.model.DomainEventType;
+import com.example.demoapi.model.OutboxEvent;
+import com.example.demoapi.model.OutboxStatus;
+import com.example.demoapi.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Ghi sự kiện nghiệp vụ vào bảng outbox trong CÙNG transaction với thay đổi dữ liệu:
+ * commit thì sự kiện chắc chắn được gửi, rollback thì sự kiện cũng biến mất.
+ * Các xử lý phụ (thông báo, tổng hợp, xóa cache...) đăng ký qua OutboxEventListener,
+ * không chạy trong request nữa.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    // MANDATORY: gọi ngoài transaction là lỗi lập trình (sự kiện sẽ không gắn với dữ liệu nào)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(DomainEventType type, String aggregateType, Object aggregateId, Object payload) {
+        Instant now = Instant.now();
+
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId == null ? null : String.valueOf(aggregateId));
+        event.setPayload(toJson(payload));
+        event.setStatus(OutboxStatus.PENDING);
+        event.setCreatedAt(now);
+        event.setAvailableAt(now);
+
+        outboxEventRepository.save(event);
+    }
+
+    // Đọc payload JSON thành object (dùng trong listener)
+    public <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload outbox #" + event.getId() + " không hợp lệ", e);
+        }
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể chuyển sự kiện sang JSON: " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
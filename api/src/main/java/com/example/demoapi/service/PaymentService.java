@@ -4,10 +4,13 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.demoapi.dto.request.SimulatePaymentRequest;
+import com.example.demoapi.event.PaymentCompletedEvent;
+import com.example.demoapi.model.DomainEventType;
 import com.example.demoapi.model.Invoice;
 import com.example.demoapi.model.Payment;
 import com.example.demoapi.repository.InvoiceRepository;
@@ -21,6 +24,8 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
     @Transactional
     public Payment simulatePayment(SimulatePaymentRequest request, String userEmail) {
@@ -78,6 +83,18 @@ public class PaymentService {
         // 6. Cập nhật lại trạng thái hóa đơn (Logic cũ)
         updateInvoiceStatus(invoice);
 
+        // 7. Phát sự kiện: màn hình Admin (sau commit) + outbox cho các xử lý phụ (cùng transaction)
+        PaymentCompletedEvent completed = new PaymentCompletedEvent(
+                savedPayment.getPaymentid(),
+                invoice.getInvoiceid(),
+                invoice.getHouseid().getHouseid(),
+                invoice.getHouseid().getApartmentNumber(),
+                savedPayment.getAmountpaid(),
+                invoice.getStatus(),
+                savedPayment.getPaymentdate());
+        eventPublisher.publishEvent(completed);
+        outboxService.record(DomainEventType.PAYMENT_COMPLETED, "Invoice", invoice.getInvoiceid(), completed);
+
         return savedPayment;
     }
 
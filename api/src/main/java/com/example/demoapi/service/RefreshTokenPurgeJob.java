@@ -0,0 +1,108 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Dọn refresh token hết hạn (phiên bị bỏ rơi) theo từng đợt nhỏ, kèm lịch sử token đã xoay vòng của các họ không còn.
+ * - Mỗi đợt là 1 transaction ngắn xóa tối đa `chunk-size` dòng, để không giữ lock lâu / không phình WAL.
+ * - Mỗi đợt giữ pg_try_advisory_xact_lock: nhiều instance cùng chạy thì chỉ 1 instance dọn, các instance khác bỏ qua.
+ * - Giới hạn thời gian mỗi lần chạy, phần còn lại để lần sau.
+ */
+@Slf4j
+@Component
+public class RefreshTokenPurgeJob {
+
+    // Khóa advisory riêng cho job này (số bất kỳ, cố định)
+    private static final long LOCK_KEY = 0x52544B5055524745L; // "RTKPURGE"
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration maxRunTime;
+    private final long pauseMs;
+
+    public RefreshTokenPurgeJob(
+            RefreshTokenRepository refreshTokenRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.refresh-token.purge.chunk-size:1000}") int chunkSize,
+            @Value("${jwt.refresh-token.purge.max-run-ms:60000}") long maxRunMs,
+            @Value("${jwt.refresh-token.purge.pause-ms:50}") long pauseMs
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRunTime = Duration.ofMillis(maxRunMs);
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(cron = "${jwt.refresh-token.purge.cron:0 15 * * * *}")
+    public void purgeExpired() {
+        Instant startedAt = Instant.now();
+        Instant deadline = startedAt.plus(maxRunTime);
+        int total = 0;
+        int totalUsed = 0;
+        int chunks = 0;
+
+        while (Instant.now().isBefore(deadline)) {
+            long chunkStart = System.nanoTime();
+            // {token hết hạn, lịch sử token đã xoay vòng}. Lịch sử của họ vừa hết hạn được dọn ở đợt sau
+            int[] deleted = transactionTemplate.execute(status -> {
+                if (!refreshTokenRepository.tryAdvisoryXactLock(LOCK_KEY)) {
+                    return null; // Instance khác đang dọn
+                }
+                return new int[] {
+                        refreshTokenRepository.deleteExpiredChunk(startedAt, chunkSize),
+                        refreshTokenRepository.deleteOrphanedUsedChunk(chunkSize)};
+            });
+
+            if (deleted == null) {
+                log.info("Refresh token purge: instance khác đang chạy, bỏ qua");
+                break;
+            }
+            chunks++;
+            total += deleted[0];
+            totalUsed += deleted[1];
+            log.debug("Refresh token purge: đợt {} xóa {} token, {} dòng lịch sử trong {} ms",
+                    chunks, deleted[0], deleted[1], (System.nanoTime() - chunkStart) / 1_000_000);
+
+            if (deleted[0] < chunkSize && deleted[1] < chunkSize) {
+                break; // Đã hết
+            }
+            if (!pause()) {
+                break;
+            }
+        }
+
+        long elapsedMs = Duration.between(startedAt, Instant.now()).toMillis();
+        if (total > 0 || totalUsed > 0 || chunks > 1) {
+            log.info("Refresh token purge: xóa {} token hết hạn, {} dòng lịch sử trong {} đợt, {} ms",
+                    total, totalUsed, chunks, elapsedMs);
+        }
+        if (!Instant.now().isBefore(deadline)) {
+            log.warn("Refresh token purge: hết thời gian ({} ms), phần còn lại sẽ dọn ở lần chạy sau", maxRunTime.toMillis());
+        }
+    }
+
+    // Nghỉ giữa các đợt để nhường tài nguyên DB cho request thật
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,91 +1,136 @@
 package com.example.demoapi.service;
 
+import com.example.demoapi.exception.InvalidRefreshTokenException;
+import com.example.demoapi.exception.RefreshTokenAlreadyRotatedException;
 import com.example.demoapi.model.RefreshToken;
 import com.example.demoapi.model.UserAccount;
 import com.example.demoapi.repository.RefreshTokenRepository;
 import com.example.demoapi.repository.UserAccountRepository;
-import com.example.demoapi.security.JwtService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Refresh token:
+ * - Client giữ chuỗi ngẫu nhiên 256-bit, DB chỉ lưu SHA-256 của nó (cột `token`, có unique index).
+ * - Mỗi lần refresh: 1 câu UPDATE có điều kiện đổi hash cũ -> hash mới (xem RefreshTokenRepository.rotate),
+ *   hash cũ được lưu lại theo họ token.
+ * - Bất kỳ token cũ nào của họ bị gửi lại (bị đánh cắp hoặc replay, dù cũ mấy lần xoay vòng)
+ *   -> thu hồi cả họ token, buộc đăng nhập lại.
+ * - Ngoại lệ: token vừa bị xoay vòng chưa quá reuse-grace-ms (nhiều tab refresh cùng lúc bằng cùng 1 cookie)
+ *   -> request thua nhận 401, họ token giữ nguyên.
+ */
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final UserAccountRepository userAccountRepository;
     private final RefreshTokenRepository refreshTokenRepository;
 
     @Value("${jwt.refresh-token.expiration-ms}")
     private long refreshTokenExpirationMs;
 
-    // --- THÊM MỚI: TẠO MỘT CLASS NỘI BỘ ĐỂ TRẢ VỀ 2 GIÁ TRỊ ---
+    // Số thiết bị (họ token) tối đa mỗi tài khoản; vượt quá -> bỏ phiên lâu không dùng nhất
+    @Value("${jwt.refresh-token.max-families-per-account:5}")
+    private int maxFamiliesPerAccount;
+
+    // Gửi lại token cũ trong khoảng này sau khi nó bị xoay vòng = refresh song song, không thu hồi
+    @Value("${jwt.refresh-token.reuse-grace-ms:10000}")
+    private long reuseGraceMs;
+
     /**
      * Một DTO nội bộ để trả về kết quả của việc xoay vòng token
      */
-    public record RotationResult(String newRefreshTokenString, String username) {}
-    // --- HẾT THÊM MỚI ---
-
+    public record RotationResult(String newRefreshTokenString, String username, String role) {}
 
+    // Đăng nhập = mở 1 họ token mới cho thiết bị này; các thiết bị khác vẫn giữ phiên
     @Transactional
-    public String createRefreshToken(String email) {
+    public String createRefreshToken(String email, String device) {
         UserAccount userAccount = userAccountRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // Xóa token cũ (nếu có)
-        refreshTokenRepository.deleteByUserAccount(userAccount);
-
-        refreshTokenRepository.flush();
-
-        // Tạo token mới
+        Instant now = Instant.now();
+        String rawToken = generateToken();
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUserAccount(userAccount);
-        refreshToken.setToken(UUID.randomUUID().toString()); // Token là chuỗi ngẫu nhiên
-        refreshToken.setExpiryDate(Instant.now().plusMillis(refreshTokenExpirationMs));
+        refreshToken.setToken(hash(rawToken));
+        refreshToken.setFamilyId(UUID.randomUUID().toString());
+        refreshToken.setDevice(device != null && device.length() > 255 ? device.substring(0, 255) : device);
+        refreshToken.setExpiryDate(now.plusMillis(refreshTokenExpirationMs));
+        refreshTokenRepository.saveAndFlush(refreshToken);
 
-        refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
-    }
+        // Giới hạn số thiết bị + dọn họ hết hạn của tài khoản (1 câu DELETE, không load Entity)
+        refreshTokenRepository.trimFamilies(userAccount.getAccountid(), maxFamiliesPerAccount, now);
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token)
-                .filter(this::verifyExpiration);
+        return rawToken;
     }
 
-    @Transactional
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
     public RotationResult rotateRefreshToken(String oldToken) {
-        // 1. Tìm token cũ, nếu không thấy (hoặc hết hạn) -> báo lỗi
-        RefreshToken token = findByToken(oldToken)
-                .orElseThrow(() -> new RuntimeException("Refresh token not found or expired!"));
-
-        // 2. Lấy username từ token cũ TRƯỚC KHI xóa nó
-        String username = token.getUserAccount().getEmail();
-
-        // 3. Tạo token mới (hàm createRefreshToken đã tự xóa token cũ)
-        String newRefreshTokenString = createRefreshToken(username);
-
-        // 4. Trả về cả token mới VÀ username
-        return new RotationResult(newRefreshTokenString, username);
-    }
-    // --- HẾT SỬA ---
+        if (oldToken == null || oldToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token not found or expired!");
+        }
+        String oldHash = hash(oldToken);
+        String newToken = generateToken();
+        Instant now = Instant.now();
+
+        // 1. Xoay vòng (1 câu lệnh)
+        List<RefreshTokenRepository.RotatedOwner> owners = refreshTokenRepository.rotate(
+                oldHash, hash(newToken), now.plusMillis(refreshTokenExpirationMs), now);
+        if (!owners.isEmpty()) {
+            RefreshTokenRepository.RotatedOwner owner = owners.get(0);
+            return new RotationResult(newToken, owner.getEmail(), owner.getRole());
+        }
 
-    private boolean verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(token);
-            return false;
+        // 2. Không đổi được: token đã bị xoay vòng trước đó (ở bất kỳ lần nào)
+        Optional<RefreshTokenRepository.UsedToken> used =
+                refreshTokenRepository.findUsedToken(oldHash, now.minusMillis(reuseGraceMs));
+        if (used.isPresent()) {
+            // Vừa bị request song song xoay vòng (row lock -> UPDATE của request này nhận 0 dòng): không thu hồi
+            if (used.get().getWithinGrace()) {
+                throw new RefreshTokenAlreadyRotatedException("Refresh token vừa được làm mới bởi request khác, vui lòng thử lại!");
+            }
+            // Replay token cũ -> thu hồi cả họ
+            refreshTokenRepository.deleteByFamilyId(used.get().getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token đã được sử dụng, vui lòng đăng nhập lại!");
         }
-        return true;
+        throw new InvalidRefreshTokenException("Refresh token not found or expired!");
     }
 
     @Transactional
     public void deleteByToken(String token) {
-        refreshTokenRepository.findByToken(token)
-                .ifPresent(refreshTokenRepository::delete);
+        refreshTokenRepository.deleteByToken(hash(token));
+    }
+
+    // --- Các hàm private ---
+
+    private static String generateToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 không khả dụng", e);
+        }
     }
-}
\ No newline at end of file
+}
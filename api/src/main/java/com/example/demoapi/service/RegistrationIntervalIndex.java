@@ -0,0 +1,251 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.RegistrationPeriod;
+import com.example.demoapi.model.RegistrationStatus;
+import com.example.demoapi.model.RegistrationType;
+import com.example.demoapi.model.TemporaryRegistration;
+import com.example.demoapi.repository.TemporaryRegistrationRepository;
+import com.example.demoapi.util.IntervalTree;
+import com.example.demoapi.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục khoảng thời gian (in-memory) cho đơn tạm trú / tạm vắng.
+ * - Theo cư dân: chặn 2 đơn (PENDING/APPROVED) trùng thời gian của cùng 1 người - O(log n).
+ * - Theo tòa nhà + loại đơn: trả lời "ai đang tạm vắng / tạm trú vào ngày D" (chỉ đơn APPROVED).
+ *
+ * DB vẫn là nguồn dữ liệu gốc: chỉ mục được nạp lười ở lần dùng đầu tiên và được cập nhật
+ * theo vòng đời transaction (giữ chỗ ngay, hoàn tác nếu rollback).
+ * Lần nạp đầu chạy trong transaction RIÊNG (REQUIRES_NEW): chỉ thấy dữ liệu đã commit, không bao giờ
+ * thấy đơn vừa save() nhưng chưa commit của transaction đang gọi (nếu không, rollback sẽ để lại đơn "ma" trong chỉ mục).
+ * Cố ý KHÔNG read-only: transaction read-only có thể đi replica (đang trễ) -> chỉ mục thiếu đơn vừa commit.
+ */
+@Component
+public class RegistrationIntervalIndex {
+
+    private static final Set<RegistrationStatus> TRACKED_STATUSES =
+            EnumSet.of(RegistrationStatus.PENDING, RegistrationStatus.APPROVED);
+
+    // endDate = null nghĩa là chưa biết ngày kết thúc -> coi như kéo dài vô hạn
+    private static final long OPEN_END = Long.MAX_VALUE;
+
+    private final TemporaryRegistrationRepository registrationRepository;
+    private final TransactionTemplate loadTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, RegistrationPeriod> periodsById = new HashMap<>();
+    private final Map<Integer, IntervalTree<RegistrationPeriod>> byResident = new HashMap<>();
+    private final Map<BuildingKey, IntervalTree<RegistrationPeriod>> approvedByBuilding = new HashMap<>();
+    private volatile boolean loaded;
+
+    private record BuildingKey(String building, RegistrationType type) {}
+
+    public RegistrationIntervalIndex(TemporaryRegistrationRepository registrationRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.registrationRepository = registrationRepository;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static RegistrationPeriod periodOf(TemporaryRegistration reg) {
+        return new RegistrationPeriod(
+                reg.getId(),
+                reg.getResident().getResidentid(),
+                reg.getApartment().getHouseid(),
+                reg.getApartment().getBuilding(),
+                reg.getType(),
+                reg.getStatus(),
+                reg.getStartDate(),
+                reg.getEndDate());
+    }
+
+    // Giữ chỗ khoảng thời gian cho đơn (tạo mới hoặc cập nhật). Ném lỗi nếu trùng với đơn khác của cùng cư dân.
+    // Đơn không còn PENDING/APPROVED (VD: admin sửa đơn đã REJECTED) -> chỉ gỡ khỏi chỉ mục, không chặn đơn khác.
+    public void reserve(RegistrationPeriod period) {
+        if (period.startDate() == null) {
+            throw new RuntimeException("Ngày bắt đầu không được để trống");
+        }
+        if (period.endDate() != null && period.endDate().isBefore(period.startDate())) {
+            throw new RuntimeException("Ngày kết thúc phải sau hoặc bằng ngày bắt đầu");
+        }
+        ensureLoaded();
+
+        RegistrationPeriod previous;
+        lock.writeLock().lock();
+        try {
+            previous = periodsById.get(period.id());
+            if (!TRACKED_STATUSES.contains(period.status())) {
+                removeInternal(period.id());
+            } else {
+                IntervalTree<RegistrationPeriod> tree = byResident.get(period.residentId());
+                if (tree != null) {
+                    RegistrationPeriod conflict = tree.findAnyOverlap(startOf(period), endOf(period), period.id());
+                    if (conflict != null) {
+                        throw new RuntimeException("Cư dân đã có đơn " + conflict.type() + " trùng thời gian (đơn #"
+                                + conflict.id() + ": " + format(conflict.startDate()) + " - " + format(conflict.endDate()) + ")");
+                    }
+                }
+                put(period);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Nếu transaction rollback -> trả lại trạng thái cũ
+        TransactionCallbacks.onRollback(() -> {
+            if (previous != null) {
+                put(previous);
+            } else {
+                remove(period.id());
+            }
+        });
+    }
+
+    // Đổi trạng thái đơn (sau khi commit). Đơn REJECTED bị loại khỏi chỉ mục.
+    public void updateStatus(Integer id, RegistrationStatus status) {
+        TransactionCallbacks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                RegistrationPeriod current = periodsById.get(id);
+                if (current == null) {
+                    return;
+                }
+                if (!TRACKED_STATUSES.contains(status)) {
+                    removeInternal(id);
+                } else {
+                    put(new RegistrationPeriod(current.id(), current.residentId(), current.houseId(), current.building(),
+                            current.type(), status, current.startDate(), current.endDate()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Xóa đơn khỏi chỉ mục (sau khi commit)
+    public void release(Integer id) {
+        TransactionCallbacks.afterCommit(() -> remove(id));
+    }
+
+    // Các đơn đã DUYỆT có hiệu lực vào ngày `date` (building = null -> mọi tòa nhà)
+    public List<RegistrationPeriod> findApprovedOn(String building, RegistrationType type, LocalDate date) {
+        ensureLoaded();
+        long point = date.toEpochDay();
+        lock.readLock().lock();
+        try {
+            List<RegistrationPeriod> result = new ArrayList<>();
+            for (Map.Entry<BuildingKey, IntervalTree<RegistrationPeriod>> entry : approvedByBuilding.entrySet()) {
+                BuildingKey key = entry.getKey();
+                if (type != null && key.type() != type) {
+                    continue;
+                }
+                if (building != null && !building.equals(key.building())) {
+                    continue;
+                }
+                result.addAll(entry.getValue().findContaining(point));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Các hàm private ---
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            List<RegistrationPeriod> committed = loadTransaction.execute(
+                    status -> registrationRepository.findPeriodsByStatusIn(TRACKED_STATUSES));
+            for (RegistrationPeriod period : committed) {
+                if (period.startDate() != null) {
+                    put(period);
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ghi đè (hoặc thêm) 1 đơn vào các cây (write lock là reentrant nên gọi lồng được)
+    private void put(RegistrationPeriod period) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(period.id());
+            periodsById.put(period.id(), period);
+            byResident.computeIfAbsent(period.residentId(), k -> new IntervalTree<>())
+                    .insert(startOf(period), endOf(period), period.id(), period);
+            if (period.status() == RegistrationStatus.APPROVED) {
+                approvedByBuilding.computeIfAbsent(new BuildingKey(period.building(), period.type()), k -> new IntervalTree<>())
+                        .insert(startOf(period), endOf(period), period.id(), period);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Integer id) {
+        RegistrationPeriod old = periodsById.remove(id);
+        if (old == null) {
+            return;
+        }
+        IntervalTree<RegistrationPeriod> residentTree = byResident.get(old.residentId());
+        if (residentTree != null) {
+            residentTree.remove(startOf(old), old.id());
+            if (residentTree.isEmpty()) {
+                byResident.remove(old.residentId());
+            }
+        }
+        if (old.status() == RegistrationStatus.APPROVED) {
+            BuildingKey key = new BuildingKey(old.building(), old.type());
+            IntervalTree<RegistrationPeriod> buildingTree = approvedByBuilding.get(key);
+            if (buildingTree != null) {
+                buildingTree.remove(startOf(old), old.id());
+                if (buildingTree.isEmpty()) {
+                    approvedByBuilding.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long startOf(RegistrationPeriod period) {
+        return period.startDate().toEpochDay();
+    }
+
+    private static long endOf(RegistrationPeriod period) {
+        return period.endDate() == null ? OPEN_END : period.endDate().toEpochDay();
+    }
+
+    private static String format(LocalDate date) {
+        return date == null ? "chưa xác định" : date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.demoapi.service;
 
+import com.example.demoapi.dto.RegistrationPeriod;
+import com.example.demoapi.dto.request.BulkApprovalRequest;
 import com.example.demoapi.dto.request.RegistrationRequest;
+import com.example.demoapi.dto.response.BulkApprovalResult;
 import com.example.demoapi.dto.response.RegistrationResponse;
+import com.example.demoapi.event.RegistrationCreatedEvent;
+import com.example.demoapi.event.RegistrationStatusChangedEvent;
 import com.example.demoapi.model.*;
 import com.example.demoapi.repository.ApartmentRepository;
 import com.example.demoapi.repository.ResidentRepository;
 import com.example.demoapi.repository.TemporaryRegistrationRepository;
 import com.example.demoapi.repository.UserAccountRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
@@ -15,18 +21,33 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class RegistrationService {
 
+    private static final String AGGREGATE_TYPE = "TemporaryRegistration";
+
     private final TemporaryRegistrationRepository registrationRepository;
     private final ResidentRepository residentRepository;
     private final ApartmentRepository apartmentRepository;
     private final UserAccountRepository userAccountRepository;
+    private final RegistrationIntervalIndex intervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
 
     // 1. TẠO YÊU CẦU MỚI
     @Transactional
-    public TemporaryRegistration createRequest(RegistrationRequest req) {
+    public RegistrationResponse createRequest(RegistrationRequest req) {
         // --- 1. LOGIC PHÂN QUYỀN (AUTHORIZATION) ---
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String currentEmail = auth.getName();
@@ -37,15 +58,9 @@ public class RegistrationService {
 
         // Nếu KHÔNG phải Admin thì phải check kỹ
         if (!isAdmin) {
-            UserAccount currentUser = userAccountRepository.findByEmail(currentEmail)
-                    .orElseThrow(() -> new RuntimeException("Người dùng không tồn tại"));
-
-            // Lấy thông tin căn hộ của người đang login
-            Resident currentResident = currentUser.getResident();
-            if (currentResident == null || currentResident.getApartment() == null) {
-                throw new RuntimeException("Tài khoản của bạn chưa được liên kết với căn hộ nào!");
-            }
-            Integer userHouseId = currentResident.getApartment().getHouseid();
+            // Lấy ID căn hộ của người đang login (chỉ 1 cột, không load tài khoản / cư dân)
+            Integer userHouseId = userAccountRepository.findHouseIdByEmail(currentEmail)
+                    .orElseThrow(() -> new RuntimeException("Tài khoản của bạn chưa được liên kết với căn hộ nào!"));
 
             // RULE 1: Không được đăng ký giùm nhà hàng xóm
             if (!userHouseId.equals(req.getHouseId())) {
@@ -88,7 +103,27 @@ public class RegistrationService {
             reg.setStatus(RegistrationStatus.PENDING);
         }
 
-        return registrationRepository.save(reg);
+        TemporaryRegistration saved = registrationRepository.save(reg);
+
+        // Chặn đơn trùng thời gian với đơn khác của cùng cư dân (lỗi -> rollback cả đơn vừa lưu)
+        intervalIndex.reserve(RegistrationIntervalIndex.periodOf(saved));
+
+        // Phát sự kiện: màn hình Admin (sau commit) + outbox cho các xử lý phụ (cùng transaction)
+        RegistrationCreatedEvent created = new RegistrationCreatedEvent(
+                saved.getId(),
+                apartment.getHouseid(),
+                apartment.getApartmentNumber(),
+                resident.getResidentid(),
+                resident.getName(),
+                saved.getType(),
+                saved.getStatus(),
+                saved.getStartDate(),
+                saved.getEndDate());
+        eventPublisher.publishEvent(created);
+        outboxService.record(DomainEventType.REGISTRATION_CREATED, AGGREGATE_TYPE, saved.getId(), created);
+
+        // Trả DTO (map ngay trong transaction, không trả entity có quan hệ lazy ra ngoài)
+        return mapToResponse(saved);
     }
 
     // 2. DUYỆT YÊU CẦU (Admin)
@@ -110,14 +145,120 @@ public class RegistrationService {
 
         reg.setNote(adminNote);
         registrationRepository.save(reg);
+
+        intervalIndex.updateStatus(reg.getId(), reg.getStatus());
+        outboxService.record(DomainEventType.REGISTRATION_STATUS_CHANGED, AGGREGATE_TYPE, reg.getId(),
+                new RegistrationStatusChangedEvent(reg.getId(), reg.getStatus(), adminNote));
+    }
+
+    // 2b. DUYỆT / TỪ CHỐI HÀNG LOẠT (Admin)
+    // Thay vì load + save từng đơn: 1 query đọc, mỗi nhóm (quyết định, ghi chú) 1 câu UPDATE,
+    // và 1 câu UPDATE cho trạng thái cư dân. Trả về kết quả theo từng ID.
+    @Transactional
+    public List<BulkApprovalResult> approveRequests(List<BulkApprovalRequest.Decision> decisions) {
+        // 1. Đọc trạng thái hiện tại của các đơn (1 query, không load Entity)
+        Set<Integer> ids = new HashSet<>();
+        for (BulkApprovalRequest.Decision d : decisions) {
+            ids.add(d.getId());
+        }
+        Map<Integer, RegistrationPeriod> current = registrationRepository.findPeriodsByIdIn(ids).stream()
+                .collect(Collectors.toMap(RegistrationPeriod::id, Function.identity()));
+
+        // 2. Kiểm tra từng quyết định, gom nhóm các đơn hợp lệ
+        record Group(RegistrationStatus status, String note) {}
+        Map<Group, List<Integer>> groups = new LinkedHashMap<>();
+        Set<Integer> absentResidentIds = new HashSet<>();
+        Set<Integer> seen = new HashSet<>();
+        List<BulkApprovalResult> results = new ArrayList<>();
+
+        for (BulkApprovalRequest.Decision d : decisions) {
+            RegistrationPeriod reg = current.get(d.getId());
+            String error = null;
+            if (!seen.add(d.getId())) {
+                error = "ID bị lặp trong danh sách";
+            } else if (reg == null) {
+                error = "Đơn đăng ký không tồn tại";
+            } else if (reg.status() != RegistrationStatus.PENDING) {
+                error = "Đơn đã được xử lý trước đó (" + reg.status() + ")";
+            }
+
+            if (error != null) {
+                results.add(BulkApprovalResult.builder().id(d.getId()).success(false).message(error).build());
+                continue;
+            }
+
+            RegistrationStatus newStatus = Boolean.TRUE.equals(d.getIsApproved())
+                    ? RegistrationStatus.APPROVED
+                    : RegistrationStatus.REJECTED;
+            groups.computeIfAbsent(new Group(newStatus, d.getAdminNote()), k -> new ArrayList<>()).add(d.getId());
+
+            if (newStatus == RegistrationStatus.APPROVED && reg.type() == RegistrationType.TAM_VANG) {
+                absentResidentIds.add(reg.residentId());
+            }
+            results.add(BulkApprovalResult.builder()
+                    .id(d.getId())
+                    .success(true)
+                    .status(newStatus)
+                    .message(newStatus == RegistrationStatus.APPROVED ? "Đã duyệt" : "Đã từ chối")
+                    .build());
+        }
+
+        // 3. Cập nhật theo nhóm. Điều kiện status = PENDING chặn việc 2 admin xử lý cùng lúc:
+        // nếu số dòng cập nhật lệch -> rollback toàn bộ để admin tải lại danh sách
+        for (Map.Entry<Group, List<Integer>> entry : groups.entrySet()) {
+            Group group = entry.getKey();
+            List<Integer> groupIds = entry.getValue();
+            int updated = registrationRepository.updateStatusAndNote(
+                    groupIds, group.status(), group.note(), RegistrationStatus.PENDING);
+            if (updated != groupIds.size()) {
+                throw new RuntimeException("Một số đơn vừa được xử lý bởi người khác, vui lòng tải lại danh sách!");
+            }
+            for (Integer id : groupIds) {
+                intervalIndex.updateStatus(id, group.status());
+                outboxService.record(DomainEventType.REGISTRATION_STATUS_CHANGED, AGGREGATE_TYPE, id,
+                        new RegistrationStatusChangedEvent(id, group.status(), group.note()));
+            }
+        }
+
+        // 4. Cư dân có đơn TẠM VẮNG được duyệt -> cập nhật trạng thái (1 câu UPDATE)
+        if (!absentResidentIds.isEmpty()) {
+            residentRepository.updateStateByIdIn(absentResidentIds, ResidentStatus.TAM_VANG);
+        }
+
+        return results;
     }
 
+    @Transactional(readOnly = true)
     public Page<RegistrationResponse> getAllRequests(Integer houseId, RegistrationStatus status, RegistrationType type, Pageable pageable) {
         // 1. Gọi Repo lấy Entity
         Page<TemporaryRegistration> pageResult = registrationRepository.findAllRequests(houseId, status, type, pageable);
 
         // 2. Map Entity -> DTO
-        return pageResult.map(reg -> RegistrationResponse.builder()
+        return pageResult.map(this::mapToResponse);
+    }
+
+    // Danh sách cư dân đang tạm vắng / tạm trú (đơn đã duyệt) vào ngày `date`, tra từ chỉ mục khoảng thời gian
+    @Transactional(readOnly = true)
+    public List<RegistrationResponse> getActiveOn(String building, RegistrationType type, LocalDate date) {
+        List<Integer> ids = intervalIndex.findApprovedOn(building, type, date).stream()
+                .map(RegistrationPeriod::id)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Lấy thông tin hiển thị trong 1 query, giữ thứ tự như chỉ mục trả về
+        Map<Integer, TemporaryRegistration> byId = registrationRepository.findAllWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TemporaryRegistration::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(reg -> reg != null)
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    private RegistrationResponse mapToResponse(TemporaryRegistration reg) {
+        return RegistrationResponse.builder()
                 .id(reg.getId())
                 .residentName(reg.getResident().getName())
                 .roomNumber(reg.getApartment().getApartmentNumber())
@@ -127,7 +268,7 @@ public class RegistrationService {
                 .reason(reg.getReason())
                 .status(reg.getStatus())
                 .adminNote(reg.getNote())
-                .build());
+                .build();
     }
 
     private void validatePermission(TemporaryRegistration reg) {
@@ -136,18 +277,11 @@ public class RegistrationService {
                 .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
 
         if (!isAdmin) {
-            // 1. Lấy thông tin người dùng hiện tại
-            String email = auth.getName();
-            UserAccount currentUser = userAccountRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Người dùng không tồn tại"));
-
-            Resident currentResident = currentUser.getResident();
-            if (currentResident == null || currentResident.getApartment() == null) {
-                throw new RuntimeException("Tài khoản chưa liên kết căn hộ");
-            }
+            // 1. Lấy ID căn hộ của người dùng hiện tại
+            Integer userHouseId = userAccountRepository.findHouseIdByEmail(auth.getName())
+                    .orElseThrow(() -> new RuntimeException("Tài khoản chưa liên kết căn hộ"));
 
             // 2. CHECK: Có đúng là đơn của nhà mình không?
-            Integer userHouseId = currentResident.getApartment().getHouseid();
             if (!reg.getApartment().getHouseid().equals(userHouseId)) {
                 throw new RuntimeException("Bạn không có quyền thao tác trên đơn của căn hộ khác!");
             }
@@ -160,8 +294,8 @@ public class RegistrationService {
     }
 
     @Transactional
-    public TemporaryRegistration updateRequest(Integer id, RegistrationRequest req) {
-        TemporaryRegistration reg = registrationRepository.findById(id)
+    public RegistrationResponse updateRequest(Integer id, RegistrationRequest req) {
+        TemporaryRegistration reg = registrationRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Đơn đăng ký không tồn tại"));
 
         // 1. Kiểm tra quyền
@@ -174,7 +308,14 @@ public class RegistrationService {
         reg.setEndDate(req.getEndDate());
         reg.setReason(req.getReason());
 
-        return registrationRepository.save(reg);
+        TemporaryRegistration saved = registrationRepository.save(reg);
+
+        // Kiểm tra lại trùng thời gian với khoảng mới (bỏ qua chính đơn này)
+        intervalIndex.reserve(RegistrationIntervalIndex.periodOf(saved));
+        outboxService.record(DomainEventType.REGISTRATION_UPDATED, AGGREGATE_TYPE, saved.getId(),
+                RegistrationIntervalIndex.periodOf(saved));
+
+        return mapToResponse(saved);
     }
 
     // --- CHỨC NĂNG XÓA ---
@@ -188,5 +329,9 @@ public class RegistrationService {
 
         // 2. Xóa
         registrationRepository.delete(reg);
+
+        intervalIndex.release(id);
+        outboxService.record(DomainEventType.REGISTRATION_DELETED, AGGREGATE_TYPE, id,
+                new RegistrationStatusChangedEvent(id, reg.getStatus(), null));
     }
 }
@@ -0,0 +1,259 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.RequestRef;
+import com.example.demoapi.dto.request.RequestTransitionRequest;
+import com.example.demoapi.dto.request.TicketRequest;
+import com.example.demoapi.dto.response.BulkTransitionResult;
+import com.example.demoapi.dto.response.CursorPage;
+import com.example.demoapi.dto.response.RequestResponse;
+import com.example.demoapi.model.*;
+import com.example.demoapi.repository.RequestRepository;
+import com.example.demoapi.repository.ResidentRepository;
+import com.example.demoapi.repository.UserAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class RequestService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final RequestRepository requestRepository;
+    private final ResidentRepository residentRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final UnresolvedRequestCounter unresolvedCounter;
+
+    // 1. GỬI YÊU CẦU MỚI (Cư dân gửi cho mình, Admin có thể gửi thay cư dân)
+    @Transactional
+    public RequestResponse createRequest(TicketRequest req) {
+        Resident resident;
+        if (isAdmin()) {
+            if (req.getResidentId() == null) {
+                throw new RuntimeException("Phải chọn cư dân gửi yêu cầu");
+            }
+            resident = residentRepository.findById(req.getResidentId())
+                    .orElseThrow(() -> new RuntimeException("Cư dân không tồn tại"));
+        } else {
+            resident = currentResident();
+        }
+
+        Request request = new Request();
+        request.setResident(resident);
+        request.setTitle(req.getTitle());
+        request.setContent(req.getContent());
+        request.setStatus(RequestStatus.PENDING);
+
+        Request saved = requestRepository.save(request);
+
+        Integer houseId = resident.getApartment() != null ? resident.getApartment().getHouseid() : null;
+        unresolvedCounter.houseChanged(houseId);
+
+        return toResponse(saved);
+    }
+
+    // 2. DANH SÁCH (phân trang keyset). Admin: hộp thư theo trạng thái; Cư dân: chỉ yêu cầu của căn hộ mình.
+    @Transactional(readOnly = true)
+    public CursorPage<RequestResponse> getRequests(RequestStatus status, Integer houseId, Integer cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int after = cursor != null ? cursor : Integer.MAX_VALUE;
+        // Lấy dư 1 dòng để biết còn trang sau hay không (không cần COUNT)
+        PageRequest fetch = PageRequest.of(0, limit + 1);
+
+        List<RequestResponse> rows;
+        if (!isAdmin()) {
+            Integer ownHouseId = currentHouseId();
+            if (ownHouseId == null) {
+                return new CursorPage<>(List.of(), null, false);
+            }
+            rows = requestRepository.findHousePage(ownHouseId, status, after, fetch);
+        } else if (houseId != null) {
+            rows = requestRepository.findHousePage(houseId, status, after, fetch);
+        } else if (status != null) {
+            rows = requestRepository.findInboxPage(status, after, fetch);
+        } else {
+            rows = requestRepository.findAllPage(after, fetch);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<RequestResponse> items = hasMore ? rows.subList(0, limit) : rows;
+        Integer nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore);
+    }
+
+    // 3. CHI TIẾT
+    @Transactional(readOnly = true)
+    public RequestResponse getRequest(Integer id) {
+        RequestResponse response = requestRepository.findResponseById(id)
+                .orElseThrow(() -> new RuntimeException("Yêu cầu không tồn tại"));
+        if (!isAdmin() && !isSameHouse(response.getHouseId())) {
+            throw new RuntimeException("Bạn không có quyền xem yêu cầu của căn hộ khác!");
+        }
+        return response;
+    }
+
+    // 4. XỬ LÝ 1 YÊU CẦU (Admin)
+    @Transactional
+    public RequestResponse transition(Integer id, RequestTransitionRequest req) {
+        validateTargetStatus(req.getStatus());
+
+        RequestRef ref = requestRepository.findRefsByIdIn(List.of(id)).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("Yêu cầu không tồn tại"));
+        if (ref.status() != RequestStatus.PENDING) {
+            throw new RuntimeException("Yêu cầu đã được xử lý trước đó (" + ref.status() + ")");
+        }
+
+        int updated = requestRepository.updateStatus(
+                List.of(id), req.getStatus(), req.getAdminResponse(), LocalDateTime.now(), RequestStatus.PENDING);
+        if (updated != 1) {
+            throw new RuntimeException("Yêu cầu vừa được xử lý bởi người khác, vui lòng tải lại!");
+        }
+        unresolvedCounter.houseChanged(ref.houseId());
+
+        return requestRepository.findResponseById(id)
+                .orElseThrow(() -> new RuntimeException("Yêu cầu không tồn tại"));
+    }
+
+    // 5. XỬ LÝ HÀNG LOẠT (Admin): 1 query đọc + 1 câu UPDATE cho cả danh sách
+    @Transactional
+    public BulkTransitionResult transitionAll(RequestTransitionRequest.Bulk req) {
+        validateTargetStatus(req.getStatus());
+
+        Set<Integer> ids = new LinkedHashSet<>(req.getIds());
+        List<Integer> updatedIds = new ArrayList<>();
+        List<Integer> skippedIds = new ArrayList<>();
+        Set<Integer> affectedHouses = new HashSet<>();
+
+        Map<Integer, RequestRef> refs = new HashMap<>();
+        for (RequestRef ref : requestRepository.findRefsByIdIn(ids)) {
+            refs.put(ref.id(), ref);
+        }
+        for (Integer id : ids) {
+            RequestRef ref = refs.get(id);
+            if (ref == null || ref.status() != RequestStatus.PENDING) {
+                skippedIds.add(id);
+                continue;
+            }
+            updatedIds.add(id);
+            if (ref.houseId() != null) {
+                affectedHouses.add(ref.houseId());
+            }
+        }
+
+        if (!updatedIds.isEmpty()) {
+            // Điều kiện status = PENDING chặn 2 admin xử lý cùng lúc: lệch số dòng -> rollback toàn bộ
+            int updated = requestRepository.updateStatus(
+                    updatedIds, req.getStatus(), req.getAdminResponse(), LocalDateTime.now(), RequestStatus.PENDING);
+            if (updated != updatedIds.size()) {
+                throw new RuntimeException("Một số yêu cầu vừa được xử lý bởi người khác, vui lòng tải lại danh sách!");
+            }
+            unresolvedCounter.housesChanged(affectedHouses);
+        }
+
+        return BulkTransitionResult.builder()
+                .status(req.getStatus())
+                .updatedIds(updatedIds)
+                .skippedIds(skippedIds)
+                .build();
+    }
+
+    // 6. XÓA (Cư dân chỉ xóa được yêu cầu PENDING của căn hộ mình)
+    @Transactional
+    public void deleteRequest(Integer id) {
+        RequestRef ref = requestRepository.findRefsByIdIn(List.of(id)).stream().findFirst()
+                .orElseThrow(() -> new RuntimeException("Yêu cầu không tồn tại"));
+
+        if (!isAdmin()) {
+            if (!isSameHouse(ref.houseId())) {
+                throw new RuntimeException("Bạn không có quyền xóa yêu cầu của căn hộ khác!");
+            }
+            if (ref.status() != RequestStatus.PENDING) {
+                throw new RuntimeException("Không thể xóa yêu cầu đã được xử lý!");
+            }
+        }
+
+        requestRepository.deleteById(id);
+
+        if (ref.status() == RequestStatus.PENDING) {
+            unresolvedCounter.houseChanged(ref.houseId());
+        }
+    }
+
+    // 7. SỐ YÊU CẦU CHƯA XỬ LÝ
+    public Map<Integer, Integer> getUnresolvedCounts() {
+        return unresolvedCounter.getAll();
+    }
+
+    public int getUnresolvedCount(Integer houseId) {
+        if (!isAdmin()) {
+            houseId = currentHouseId();
+        }
+        return unresolvedCounter.get(houseId);
+    }
+
+    // --- Các hàm private ---
+
+    private void validateTargetStatus(RequestStatus status) {
+        if (status == RequestStatus.PENDING) {
+            throw new RuntimeException("Trạng thái mới phải là APPROVED hoặc REJECTED");
+        }
+    }
+
+    private RequestResponse toResponse(Request request) {
+        Resident resident = request.getResident();
+        Apartment apartment = resident != null ? resident.getApartment() : null;
+        return RequestResponse.builder()
+                .id(request.getRequestid())
+                .title(request.getTitle())
+                .content(request.getContent())
+                .status(request.getStatus())
+                .adminResponse(request.getAdminresponse())
+                .residentId(resident != null ? resident.getResidentid() : null)
+                .residentName(resident != null ? resident.getName() : null)
+                .houseId(apartment != null ? apartment.getHouseid() : null)
+                .roomNumber(apartment != null ? apartment.getApartmentNumber() : null)
+                .createdDate(request.getCreateddate())
+                .resolvedDate(request.getResolveddate())
+                .build();
+    }
+
+    private boolean isAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+    }
+
+    private boolean isSameHouse(Integer houseId) {
+        Integer ownHouseId = currentHouseId();
+        return ownHouseId != null && ownHouseId.equals(houseId);
+    }
+
+    private Resident currentResident() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        UserAccount user = userAccountRepository.findWithResidentByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Người dùng không tồn tại"));
+        if (user.getResident() == null) {
+            throw new RuntimeException("Tài khoản chưa liên kết cư dân");
+        }
+        return user.getResident();
+    }
+
+    // null nếu tài khoản chưa liên kết cư dân / căn hộ
+    private Integer currentHouseId() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userAccountRepository.findHouseIdByEmail(email).orElse(null);
+    }
+}
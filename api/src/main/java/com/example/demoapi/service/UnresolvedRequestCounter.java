@@ -0,0 +1,133 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.HouseCount;
+import com.example.demoapi.model.RequestStatus;
+import com.example.demoapi.repository.RequestRepository;
+import com.example.demoapi.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bộ đếm (in-memory) số yêu cầu chưa xử lý (PENDING) của từng căn hộ.
+ * - Nạp lười từ DB ở lần đọc đầu tiên (1 câu GROUP BY).
+ * - Sau khi commit 1 thay đổi: đếm lại từ DB đúng các căn hộ bị ảnh hưởng (không cộng / trừ delta:
+ *   delta không biết lần nạp lại đang chạy đã thấy thay đổi đó hay chưa -> đếm trùng / mất).
+ * - Nạp lại toàn bộ và đếm lại từng căn đều chạy dưới cùng 1 lock, câu đếm chạy sau commit
+ *   -> kết quả ghi sau luôn phản ánh dữ liệu mới hơn kết quả ghi trước.
+ * - Định kỳ nạp lại từ DB để sửa sai lệch (VD: dữ liệu bị sửa trực tiếp trong DB).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UnresolvedRequestCounter {
+
+    private final RequestRepository requestRepository;
+
+    // ReentrantLock thay vì synchronized: có truy vấn DB bên trong, không được ghim virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Integer, Integer> counts;
+
+    public int get(Integer houseId) {
+        if (houseId == null) {
+            return 0;
+        }
+        return snapshot().getOrDefault(houseId, 0);
+    }
+
+    // Bản sao chỉ đọc: houseId -> số yêu cầu chưa xử lý
+    public Map<Integer, Integer> getAll() {
+        return Map.copyOf(snapshot());
+    }
+
+    // Số yêu cầu chưa xử lý của căn hộ có thể đã đổi (tạo / xử lý / xóa) -> đếm lại sau commit
+    public void houseChanged(Integer houseId) {
+        if (houseId != null) {
+            housesChanged(Set.of(houseId));
+        }
+    }
+
+    public void housesChanged(Collection<Integer> houseIds) {
+        if (houseIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = List.copyOf(houseIds);
+        TransactionCallbacks.afterCommit(() -> recount(ids));
+    }
+
+    @Scheduled(fixedDelayString = "${app.requests.counter-refresh-ms:600000}",
+            initialDelayString = "${app.requests.counter-refresh-ms:600000}")
+    public void refresh() {
+        lock.lock();
+        try {
+            if (counts != null) {
+                counts = load();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // --- Các hàm private ---
+
+    private Map<Integer, Integer> snapshot() {
+        Map<Integer, Integer> current = counts;
+        if (current == null) {
+            lock.lock();
+            try {
+                if (counts == null) {
+                    counts = load();
+                }
+                current = counts;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private void recount(List<Integer> houseIds) {
+        lock.lock();
+        try {
+            Map<Integer, Integer> current = counts;
+            if (current == null) {
+                return; // Chưa nạp: lần nạp đầu sẽ đọc số liệu đã commit
+            }
+            Map<Integer, Integer> fresh = new HashMap<>();
+            for (HouseCount row : requestRepository.countByHouseInAndStatus(houseIds, RequestStatus.PENDING)) {
+                fresh.put(row.houseId(), row.count().intValue());
+            }
+            for (Integer houseId : houseIds) {
+                Integer count = fresh.get(houseId);
+                if (count == null) {
+                    current.remove(houseId);
+                } else {
+                    current.put(houseId, count);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Thay đổi đã commit, không làm hỏng request: bỏ số liệu, lần đọc sau nạp lại toàn bộ
+            log.warn("Không đếm lại được yêu cầu chưa xử lý, sẽ nạp lại: {}", e.getMessage());
+            counts = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Integer, Integer> load() {
+        Map<Integer, Integer> loaded = new HashMap<>();
+        for (HouseCount row : requestRepository.countByHouseAndStatus(RequestStatus.PENDING)) {
+            loaded.put(row.houseId(), row.count().intValue());
+        }
+        return new ConcurrentHashMap<>(loaded);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demoapi.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET bằng strong ETag ghép từ version của tài nguyên (xem các hàm get...Etag ở service).
+ * Version là cột @Version của Apartment, Fee, Invoice, Resident: Hibernate tăng mỗi lần ghi và đồng thời dùng làm
+ * optimistic lock (2 người sửa cùng lúc -> người sau nhận 409, xem GlobalExceptionHandler).
+ * Cột thêm sau khi đã có dữ liệu: @ColumnDefault("0") để bản ghi cũ nhận version 0.
+ * Câu đọc version KHÔNG dùng query cache: transaction read-only có thể đọc từ replica đang trễ, kết quả cũ bị cache
+ * tới hết TTL -> 304 sai kéo dài. Không cache thì ETag và nội dung cùng đọc từ 1 nguồn, cũ tối đa bằng độ trễ replica.
+ */
+public final class ETags {
+
+    // private: trình duyệt được lưu nhưng luôn hỏi lại (If-None-Match); proxy dùng chung không được lưu
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    // VD: of("invoice", 12, 3) -> "invoice-12-3" (kèm dấu nháy kép, là strong ETag)
+    public static String of(String resource, Object... parts) {
+        StringBuilder sb = new StringBuilder("\"").append(resource);
+        for (Object part : parts) {
+            sb.append('-').append(part);
+        }
+        return sb.append('"').toString();
+    }
+
+    // If-None-Match khớp -> 304 ngay, KHÔNG gọi body (không dựng DTO, không serialize).
+    // etag phải được tính TRƯỚC khi dựng body: dữ liệu đổi giữa chừng chỉ khiến client tải lại ở lần sau.
+    public static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            // checkNotModified đã ghi header ETag vào response -> không đặt lại (tránh 2 header ETag)
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.demoapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cây khoảng (interval tree) dựa trên cây AVL, khóa theo (start, id) và
+ * lưu thêm maxEnd của mỗi cây con.
+ * - Thêm / xóa: O(log n)
+ * - Kiểm tra giao nhau: O(log n)
+ * - Liệt kê các khoảng chứa một điểm: O(log n + k)
+ *
+ * Khoảng là đóng hai đầu [start, end]. Class này KHÔNG thread-safe,
+ * người gọi tự đồng bộ.
+ */
+public class IntervalTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long id;
+        final T value;
+        long maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long id, T value) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Thêm khoảng [start, end] với id duy nhất (id dùng để phân biệt khi start trùng nhau)
+    public void insert(long start, long end, long id, T value) {
+        if (end < start) {
+            throw new IllegalArgumentException("end < start");
+        }
+        root = insert(root, new Node<>(start, end, id, value));
+        size++;
+    }
+
+    // Xóa khoảng theo (start, id). Trả về true nếu có xóa.
+    public boolean remove(long start, long id) {
+        int before = size;
+        root = remove(root, start, id);
+        return size < before;
+    }
+
+    // Có khoảng nào giao với [start, end] không? (bỏ qua khoảng có id = excludeId)
+    public T findAnyOverlap(long start, long end, long excludeId) {
+        Node<T> node = root;
+        while (node != null && node.maxEnd >= start) {
+            if (node.id != excludeId && node.start <= end && start <= node.end) {
+                return node.value;
+            }
+            if (node.left != null && node.left.maxEnd >= start) {
+                T found = findAnyOverlap(node.left, start, end, excludeId);
+                if (found != null) {
+                    return found;
+                }
+            }
+            if (node.start > end) {
+                return null;
+            }
+            node = node.right;
+        }
+        return null;
+    }
+
+    // Liệt kê tất cả khoảng chứa điểm `point`
+    public List<T> findContaining(long point) {
+        List<T> result = new ArrayList<>();
+        collectOverlaps(root, point, point, result::add);
+        return result;
+    }
+
+    // Liệt kê tất cả khoảng giao với [start, end]
+    public List<T> findOverlapping(long start, long end) {
+        List<T> result = new ArrayList<>();
+        collectOverlaps(root, start, end, result::add);
+        return result;
+    }
+
+    // --- Các hàm private ---
+
+    private T findAnyOverlap(Node<T> node, long start, long end, long excludeId) {
+        if (node == null || node.maxEnd < start) {
+            return null;
+        }
+        if (node.id != excludeId && node.start <= end && start <= node.end) {
+            return node.value;
+        }
+        T found = findAnyOverlap(node.left, start, end, excludeId);
+        if (found != null) {
+            return found;
+        }
+        if (node.start > end) {
+            return null;
+        }
+        return findAnyOverlap(node.right, start, end, excludeId);
+    }
+
+    private void collectOverlaps(Node<T> node, long start, long end, Consumer<T> sink) {
+        if (node == null || node.maxEnd < start) {
+            return;
+        }
+        collectOverlaps(node.left, start, end, sink);
+        if (node.start <= end && start <= node.end) {
+            sink.accept(node.value);
+        }
+        if (node.start <= end) {
+            collectOverlaps(node.right, start, end, sink);
+        }
+    }
+
+    private static int compare(long startA, long idA, long startB, long idB) {
+        int c = Long.compare(startA, startB);
+        return c != 0 ? c : Long.compare(idA, idB);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> fresh) {
+        if (node == null) {
+            return fresh;
+        }
+        if (compare(fresh.start, fresh.id, node.start, node.id) < 0) {
+            node.left = insert(node.left, fresh);
+        } else {
+            node.right = insert(node.right, fresh);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> remove(Node<T> node, long start, long id) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, id, node.start, node.id);
+        if (c < 0) {
+            node.left = remove(node.left, start, id);
+        } else if (c > 0) {
+            node.right = remove(node.right, start, id);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Thay bằng phần tử nhỏ nhất của cây con phải
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            Node<T> replacement = new Node<>(successor.start, successor.end, successor.id, successor.value);
+            replacement.right = removeMin(node.right);
+            replacement.left = node.left;
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private Node<T> removeMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.end;
+        if (node.left != null && node.left.maxEnd > max) {
+            max = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > max) {
+            max = node.right.maxEnd;
+        }
+        node.maxEnd = max;
+    }
+
+    private Node<T> rebalance(Node<T> node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demoapi.util;
+
+import jakarta.persistence.Tuple;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Tham số ?fields=a,b,c của các API danh sách: chỉ SELECT / map / serialize đúng các trường được chọn.
+ * Mỗi tài nguyên khai báo danh mục "tên trường JSON -> biểu thức JPQL" (xem SparseListRepository),
+ * tên trường trùng với tên thuộc tính trong DTO đầy đủ. Trường "id" luôn được trả về (làm khóa dòng ở bảng UI).
+ */
+public final class SparseFields {
+
+    private static final String ID = "id";
+
+    private final List<String> names;
+    private final List<String> expressions;
+
+    private SparseFields(List<String> names, List<String> expressions) {
+        this.names = names;
+        this.expressions = expressions;
+    }
+
+    // Không truyền fields -> API trả DTO đầy đủ như cũ
+    public static boolean requested(String fields) {
+        return StringUtils.hasText(fields);
+    }
+
+    // Giữ thứ tự client yêu cầu, bỏ trùng; tên không có trong danh mục -> RuntimeException (400)
+    public static SparseFields parse(String fields, Map<String, String> catalog) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        selected.put(ID, catalog.get(ID));
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String expression = catalog.get(name);
+            if (expression == null) {
+                throw new RuntimeException("Trường không hợp lệ: " + name
+                        + ". Các trường hỗ trợ: " + String.join(", ", new TreeSet<>(catalog.keySet())));
+            }
+            selected.putIfAbsent(name, expression);
+        }
+        return new SparseFields(List.copyOf(selected.keySet()), List.copyOf(selected.values()));
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    // VD: "r.residentid, r.name, coalesce(a.apartmentNumber, 'N/A')"
+    public String selectClause() {
+        return String.join(", ", expressions);
+    }
+
+    // Đọc theo vị trí cột (không đặt alias trong JPQL: month, year... trùng tên hàm HQL)
+    public Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            row.put(names.get(i), tuple.get(i));
+        }
+        return row;
+    }
+
+    public List<Map<String, Object>> toMaps(List<Tuple> tuples) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            rows.add(toMap(tuple));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,49 @@
+-- Các bản vá dữ liệu / schema chạy mỗi lần khởi động, SAU khi Hibernate (ddl-auto=update) cập nhật bảng.
+-- Mọi câu lệnh ở đây phải chạy lại nhiều lần vẫn an toàn (idempotent).
+-- Các câu lệnh phân cách bằng "^;" (spring.sql.init.separator) để viết được khối DO $$ ... $$.
+
+-- Refresh token cũ lưu dạng chuỗi gốc (không hash, không có họ token) -> bỏ, người dùng đăng nhập lại 1 lần
+DELETE FROM refreshtoken WHERE family_id IS NULL
+^;
+
+-- refreshtoken.accountid từng là @OneToOne (unique) -> bỏ ràng buộc unique để mỗi tài khoản có nhiều thiết bị
+DO $$
+DECLARE
+    c record;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_class t ON t.oid = con.conrelid
+        JOIN pg_attribute a ON a.attrelid = t.oid AND a.attnum = con.conkey[1]
+        WHERE t.relname = 'refreshtoken'
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND a.attname = 'accountid'
+    LOOP
+        EXECUTE 'ALTER TABLE refreshtoken DROP CONSTRAINT ' || quote_ident(c.conname);
+    END LOOP;
+END $$
+^;
+
+-- refreshtoken.previous_token (chỉ nhớ 1 token liền trước) -> lịch sử đầy đủ ở refreshtoken_used
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'refreshtoken' AND column_name = 'previous_token') THEN
+        INSERT INTO refreshtoken_used (token_hash, family_id)
+        SELECT previous_token, family_id FROM refreshtoken
+        WHERE previous_token IS NOT NULL AND family_id IS NOT NULL
+        ON CONFLICT (token_hash) DO NOTHING;
+        ALTER TABLE refreshtoken DROP COLUMN previous_token;
+    END IF;
+END $$
+^;
+
+-- Mật khẩu cũ lưu dạng thô (không tiền tố) -> đánh dấu "{noop}" để không cần đối chiếu thô mặc định nữa.
+-- LegacyPasswordMigrator băm lại các dòng "{noop}" bằng bcrypt ngay sau khi khởi động.
+UPDATE useraccount SET password = '{noop}' || password
+WHERE password IS NOT NULL
+  AND password NOT LIKE '{bcrypt}%'
+  AND password NOT LIKE '{noop}%'
+^;
@@ -0,0 +1,65 @@
+package com.example.demoapi.exception;
+
+import com.example.demoapi.model.Fee;
+import com.example.demoapi.repository.FeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+// Chạy trên DB thật, KHÔNG @Transactional ở mức test: cần 2 transaction thật ghi đè nhau
+@SpringBootTest
+class OptimisticLockConflictTest {
+
+    @Autowired
+    private FeeRepository feeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFeeEdit_secondWriterGets409() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        TransactionTemplate otherTx = new TransactionTemplate(transactionManager);
+        otherTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Fee fee = new Fee();
+        fee.setFeename("Phí test optimistic lock " + System.nanoTime());
+        fee.setUnitprice(BigDecimal.valueOf(1000));
+        Integer feeId = feeRepository.save(fee).getId();
+        try {
+            // A đọc phí -> B sửa và commit trước -> A ghi bản cũ của mình
+            OptimisticLockingFailureException conflict = catchThrowableOfType(() -> tx.executeWithoutResult(status -> {
+                Fee seenByA = feeRepository.findById(feeId).orElseThrow();
+
+                otherTx.executeWithoutResult(s -> {
+                    Fee seenByB = feeRepository.findById(feeId).orElseThrow();
+                    seenByB.setUnitprice(BigDecimal.valueOf(2000));
+                    feeRepository.saveAndFlush(seenByB);
+                });
+
+                seenByA.setUnitprice(BigDecimal.valueOf(3000));
+                feeRepository.saveAndFlush(seenByA);
+            }), OptimisticLockingFailureException.class);
+
+            assertThat(conflict).isNotNull();
+            ResponseEntity<Object> response = new GlobalExceptionHandler().handleOptimisticLocking(conflict);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+
+            // Bản của B được giữ, bản của A không ghi đè
+            assertThat(feeRepository.findById(feeId).orElseThrow().getUnitprice()).isEqualByComparingTo("2000");
+        } finally {
+            feeRepository.deleteById(feeId);
+        }
+    }
+}
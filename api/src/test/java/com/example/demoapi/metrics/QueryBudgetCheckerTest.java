@@ -0,0 +1,77 @@
+package com.example.demoapi.metrics;
+
+import com.example.demoapi.exception.QueryBudgetExceededException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// app.query-budget.mode=fail đến từ src/test/resources/config/application.properties (chung cho mọi test)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(QueryBudgetCheckerTest.BudgetProbeController.class)
+@WithMockUser
+class QueryBudgetCheckerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requestOverItsBudget_failsWithQueryBudgetExceeded() {
+        Throwable thrown = catchThrowable(() -> mockMvc.perform(get("/test/query-budget/over")));
+
+        // Ném từ RequestMetricsFilter: có thể được MockMvc bọc lại
+        Throwable budgetError = thrown;
+        while (budgetError != null && !(budgetError instanceof QueryBudgetExceededException)) {
+            budgetError = budgetError.getCause();
+        }
+        assertThat(budgetError)
+                .isNotNull()
+                .hasMessageContaining("BudgetProbeController.over");
+    }
+
+    @Test
+    void requestWithinItsBudget_passes() throws Exception {
+        mockMvc.perform(get("/test/query-budget/within"))
+                .andExpect(status().isOk());
+    }
+
+    // Chỉ đăng ký cho test này (lớp lồng trong test không bị component scan)
+    @RestController
+    static class BudgetProbeController {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        BudgetProbeController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        // 3 câu cùng shape, ngân sách 2 câu
+        @GetMapping("/test/query-budget/over")
+        @QueryBudget(statements = 2)
+        public String over() {
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            }
+            return "ok";
+        }
+
+        @GetMapping("/test/query-budget/within")
+        @QueryBudget(statements = 2)
+        public String within() {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return "ok";
+        }
+    }
+}
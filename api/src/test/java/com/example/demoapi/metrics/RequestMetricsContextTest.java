@@ -0,0 +1,49 @@
+package com.example.demoapi.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsContextTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestMetricsContext.end();
+    }
+
+    @Test
+    void propagate_recordsWorkerStatementsIntoCallerRequest() throws Exception {
+        RequestMetricsContext context = RequestMetricsContext.begin();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RequestMetricsContext seenByWorker = CompletableFuture.supplyAsync(RequestMetricsContext.propagate(() -> {
+                RequestMetricsContext current = RequestMetricsContext.current();
+                current.recordExecution(7);
+                current.recordShape("select ? from t");
+                return current;
+            }), executor).get();
+
+            assertThat(seenByWorker).isSameAs(context);
+            assertThat(context.statementCount()).isEqualTo(1);
+            assertThat(context.jdbcTimeMs()).isEqualTo(7);
+            assertThat(context.shapeCounts()).containsEntry("select ? from t", 1);
+
+            // Thread của pool không giữ lại context sau khi task xong
+            assertThat(CompletableFuture.supplyAsync(RequestMetricsContext::current, executor).get()).isNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void propagate_withoutRequest_returnsTaskUnchanged() {
+        RequestMetricsContext.end();
+
+        assertThat(RequestMetricsContext.propagate(() -> RequestMetricsContext.current()).get()).isNull();
+    }
+}
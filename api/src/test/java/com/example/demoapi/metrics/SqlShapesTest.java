@@ -0,0 +1,25 @@
+package com.example.demoapi.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlShapesTest {
+
+    @Test
+    void normalize_replacesLiteralsAndCollapsesInLists() {
+        String a = SqlShapes.normalize("select a1_0.houseid from apartment a1_0 where a1_0.houseid in (?, ?, ?)");
+        String b = SqlShapes.normalize("select a1_0.houseid\n  from apartment a1_0 where a1_0.houseid in (?,?)");
+        assertThat(a).isEqualTo(b).isEqualTo("select a1_0.houseid from apartment a1_0 where a1_0.houseid in (?...)");
+
+        assertThat(SqlShapes.normalize("SELECT * FROM invoice WHERE status = 'un''paid' AND year = 2025 LIMIT 10"))
+                .isEqualTo("SELECT * FROM invoice WHERE status = ? AND year = ? LIMIT ?");
+    }
+
+    @Test
+    void normalize_keepsIdentifiersContainingDigits() {
+        // Alias/tên cột có số (a1_0, col2) không bị thay bằng ?
+        assertThat(SqlShapes.normalize("select i1_0.invoiceid, col2 from t1 i1_0 where i1_0.x=-5"))
+                .isEqualTo("select i1_0.invoiceid, col2 from t1 i1_0 where i1_0.x=?");
+    }
+}
@@ -21,11 +21,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult; // <-- Dùng để lấy Response
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 // Import các hàm static để code test ngắn gọn
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -60,6 +70,14 @@ public class AuthControllerTest {
     @Autowired
     private RefreshTokenRepository refreshTokenRepository; // Cần để dọn dẹp (nếu cần)
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Dữ liệu tạo trong setup(), để test không chạy trong transaction tự dọn
+    private Apartment testApt;
+    private Resident testResident;
+    private UserAccount testUser;
+
     /**
      * Hàm này chạy TRƯỚC MỖI HÀM @Test,
      * đảm bảo chúng ta luôn có 1 user "testuser" / "password123"
@@ -67,19 +85,19 @@ public class AuthControllerTest {
     @BeforeEach
     void setup() {
         // 1a. Tạo Apartment (Cha)
-        Apartment testApt = new Apartment();
+        testApt = new Apartment();
         testApt.setBuilding("Test Tower");
         testApt.setFloor(1);
         apartmentRepository.save(testApt);
 
         // 1b. Tạo Resident (Con)
-        Resident testResident = new Resident();
+        testResident = new Resident();
         testResident.setName("Test User");
         testResident.setApartment(testApt); // Nối với Apartment
         residentRepository.save(testResident);
 
         // 1c. Tạo UserAccount (Cháu)
-        UserAccount testUser = new UserAccount();
+        testUser = new UserAccount();
         testUser.setEmail("testuser"); // Tên đăng nhập
         testUser.setPassword(passwordEncoder.encode("password123")); // Mật khẩu
         testUser.setRole("ADMIN"); // Gán vai trò
@@ -166,4 +184,88 @@ public class AuthControllerTest {
                 .andExpect(cookie().exists("refreshToken")) // Mong đợi server trả về cookie
                 .andExpect(cookie().maxAge("refreshToken", 0)); // Mong đợi cookie đã HẾT HẠN (maxAge = 0)
     }
-}
\ No newline at end of file
+
+    @Test
+    void test_Refresh_ReplayOfOlderToken_RevokesWholeFamily() throws Exception {
+        // Đăng nhập -> token A, xoay vòng 2 lần: A -> B -> C
+        LoginRequest loginRequest = new LoginRequest("testuser", "password123");
+        Cookie tokenA = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("refreshToken");
+        Cookie tokenB = mockMvc.perform(post("/api/auth/refresh").cookie(tokenA))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("refreshToken");
+        Cookie tokenC = mockMvc.perform(post("/api/auth/refresh").cookie(tokenB))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("refreshToken");
+
+        // Giả lập A bị gửi lại 1 giờ sau (ngoài khoảng ân hạn cho refresh song song)
+        jdbcTemplate.update("UPDATE refreshtoken_used SET used_at = used_at - interval '1 hour'");
+
+        // Kẻ gian gửi lại A (cũ 2 lần xoay vòng) -> bị từ chối
+        mockMvc.perform(post("/api/auth/refresh").cookie(tokenA))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Refresh token đã được sử dụng, vui lòng đăng nhập lại!"));
+
+        // ... và cả họ bị thu hồi: token mới nhất C của người dùng thật cũng không dùng được nữa
+        mockMvc.perform(post("/api/auth/refresh").cookie(tokenC))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Cần 2 transaction thật tranh nhau 1 dòng refreshtoken
+    void test_Refresh_ConcurrentWithSameToken_DoesNotRevokeFamily() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            LoginRequest loginRequest = new LoginRequest("testuser", "password123");
+            Cookie tokenA = mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(loginRequest)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getCookie("refreshToken");
+
+            // 2 tab cùng refresh bằng A
+            CountDownLatch start = new CountDownLatch(1);
+            Callable<MvcResult> refresh = () -> {
+                start.await();
+                return mockMvc.perform(post("/api/auth/refresh").cookie(tokenA)).andReturn();
+            };
+            List<Future<MvcResult>> futures = new ArrayList<>();
+            futures.add(pool.submit(refresh));
+            futures.add(pool.submit(refresh));
+            start.countDown();
+
+            Cookie winnerCookie = null;
+            int ok = 0;
+            int unauthorized = 0;
+            for (Future<MvcResult> future : futures) {
+                MvcResult result = future.get();
+                int status = result.getResponse().getStatus();
+                if (status == 200) {
+                    ok++;
+                    winnerCookie = result.getResponse().getCookie("refreshToken");
+                } else if (status == 401) {
+                    unauthorized++;
+                }
+            }
+            // 1 request xoay vòng được, request kia nhận 401 (không phải 400 "đã được sử dụng")
+            assertEquals(1, ok);
+            assertEquals(1, unauthorized);
+
+            // Họ token KHÔNG bị thu hồi: cookie của request thắng vẫn refresh được
+            assertNotNull(winnerCookie);
+            mockMvc.perform(post("/api/auth/refresh").cookie(winnerCookie))
+                    .andExpect(status().isOk());
+        } finally {
+            pool.shutdownNow();
+            jdbcTemplate.update("DELETE FROM refreshtoken_used WHERE family_id IN "
+                    + "(SELECT family_id FROM refreshtoken WHERE accountid = ?)", testUser.getAccountid());
+            jdbcTemplate.update("DELETE FROM refreshtoken WHERE accountid = ?", testUser.getAccountid());
+            userAccountRepository.delete(testUser);
+            residentRepository.delete(testResident);
+            apartmentRepository.delete(testApt);
+        }
+    }
+}
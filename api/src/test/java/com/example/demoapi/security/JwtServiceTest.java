@@ -0,0 +1,77 @@
+package com.example.demoapi.security;
+
+import com.example.demoapi.config.JwtKeyProperties;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String LEGACY_SECRET = "legacy-secret-legacy-secret-0123456789";
+    private static final String NEW_SECRET = "rotated-secret-rotated-secret-0123456789";
+    private static final long EXPIRATION_MS = 15 * 60 * 1000L;
+
+    @Test
+    void kidLessToken_acceptedWhenNoKeyedSetConfigured() {
+        JwtService jwtService = new JwtService(new JwtKeyProperties(), LEGACY_SECRET, EXPIRATION_MS);
+
+        assertThat(jwtService.getUsernameFromAccessToken(kidLessToken())).isEqualTo("old@example.com");
+    }
+
+    @Test
+    void kidLessToken_rejectedOnceKeysConfigured_unlessLegacyExplicitlyAllowed() {
+        JwtKeyProperties rotated = rotatedKeys(null);
+        JwtService jwtService = new JwtService(rotated, LEGACY_SECRET, EXPIRATION_MS);
+
+        assertThatThrownBy(() -> jwtService.parseAccessToken(kidLessToken()))
+                .isInstanceOf(JwtException.class);
+        // Token mới (có kid) vẫn bình thường
+        String fresh = jwtService.generateAccessToken("new@example.com", "ROLE_RESIDENT");
+        assertThat(jwtService.getUsernameFromAccessToken(fresh)).isEqualTo("new@example.com");
+    }
+
+    @Test
+    void kidLessToken_acceptedOnlyUntilLegacyVerifyUntil() {
+        JwtService stillAllowed = new JwtService(
+                rotatedKeys(Instant.now().plus(1, ChronoUnit.HOURS)), LEGACY_SECRET, EXPIRATION_MS);
+        assertThat(stillAllowed.getUsernameFromAccessToken(kidLessToken())).isEqualTo("old@example.com");
+
+        JwtService retired = new JwtService(
+                rotatedKeys(Instant.now().minus(1, ChronoUnit.MINUTES)), LEGACY_SECRET, EXPIRATION_MS);
+        assertThatThrownBy(() -> retired.parseAccessToken(kidLessToken()))
+                .isInstanceOf(JwtException.class);
+    }
+
+    private static JwtKeyProperties rotatedKeys(Instant legacyVerifyUntil) {
+        JwtKeyProperties.SigningKey key = new JwtKeyProperties.SigningKey();
+        key.setKid("2025-06");
+        key.setSecret(NEW_SECRET);
+        JwtKeyProperties properties = new JwtKeyProperties();
+        properties.setActiveKid("2025-06");
+        properties.setKeys(List.of(key));
+        properties.setLegacyVerifyUntil(legacyVerifyUntil);
+        return properties;
+    }
+
+    // Token phát hành trước khi có xoay vòng khóa: không có header kid
+    private static String kidLessToken() {
+        return Jwts.builder()
+                .setSubject("old@example.com")
+                .claim("role", "ROLE_RESIDENT")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
+                .signWith(Keys.hmacShaKeyFor(LEGACY_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
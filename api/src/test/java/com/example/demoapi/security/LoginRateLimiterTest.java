@@ -0,0 +1,71 @@
+package com.example.demoapi.security;
+
+import com.example.demoapi.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private LoginRateLimiter limiter(int emailPerMinute, int emailBurst, int maxKeys) {
+        return new LoginRateLimiter(true,
+                LoginRateLimiter.Limit.perMinute(1000, 1000),
+                LoginRateLimiter.Limit.perMinute(emailPerMinute, emailBurst),
+                maxKeys, now::get);
+    }
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        LoginRateLimiter limiter = limiter(6, 3, 1000); // 1 request / 10s, burst 3
+
+        for (int i = 0; i < 3; i++) {
+            limiter.check("10.0.0.1", "a@x.com");
+        }
+        assertThatThrownBy(() -> limiter.check("10.0.0.1", "A@X.com ")) // Email không phân biệt hoa thường
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfterSeconds()).isEqualTo(10));
+
+        // Email khác không bị ảnh hưởng
+        assertThatCode(() -> limiter.check("10.0.0.1", "b@x.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void refillsOverTime() {
+        LoginRateLimiter limiter = limiter(6, 1, 1000);
+
+        limiter.check(null, "a@x.com");
+        assertThatThrownBy(() -> limiter.check(null, "a@x.com")).isInstanceOf(RateLimitExceededException.class);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThatCode(() -> limiter.check(null, "a@x.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void evictsIdleKeysWhenFull() {
+        LoginRateLimiter limiter = limiter(6, 1, 16); // 1 khóa mỗi ngăn
+
+        limiter.check(null, "a@x.com");
+        for (int i = 0; i < 200; i++) {
+            limiter.check(null, "user" + i + "@x.com");
+        }
+        // Khóa cũ đã bị đẩy ra -> được tính lại từ đầu
+        assertThatCode(() -> limiter.check(null, "a@x.com")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        LoginRateLimiter limiter = new LoginRateLimiter(false,
+                LoginRateLimiter.Limit.perMinute(1, 1), LoginRateLimiter.Limit.perMinute(1, 1), 100, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.check("10.0.0.1", "a@x.com");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.response.HomeResponse;
+import com.example.demoapi.dto.response.HouseholdResponse;
+import com.example.demoapi.exception.GlobalExceptionHandler;
+import com.example.demoapi.exception.HomeLoadTimeoutException;
+import com.example.demoapi.repository.UserAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Unit test (không DB): các service con được mock, chỉ kiểm tra phần điều phối song song của HomeService
+class HomeServiceTest {
+
+    private static final String EMAIL = "resident@test.local";
+    private static final int HOUSE_ID = 7;
+
+    private final UserAccountRepository userAccountRepository = mock(UserAccountRepository.class);
+    private final HouseholdService householdService = mock(HouseholdService.class);
+    private final InvoiceService invoiceService = mock(InvoiceService.class);
+    private final RegistrationService registrationService = mock(RegistrationService.class);
+
+    private HomeService homeService;
+
+    @BeforeEach
+    void setUp() {
+        homeService = new HomeService(userAccountRepository, householdService, invoiceService, registrationService,
+                new SimpleMeterRegistry(), 4, 16, 200);
+
+        when(householdService.getHouseholdMembers(HOUSE_ID)).thenReturn(List.of());
+        when(invoiceService.getAllInvoices(any(), any(), any(), any(), any(), any(Pageable.class))).thenReturn(Page.empty());
+        when(registrationService.getAllRequests(any(), any(), any(), any(Pageable.class))).thenReturn(Page.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        homeService.shutdown();
+    }
+
+    @Test
+    void callerWithoutApartment_getsEmptyHome_withoutLoadingParts() {
+        when(userAccountRepository.findHouseIdByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        HomeResponse home = homeService.getHome(EMAIL, 10);
+
+        assertThat(home.getHouseId()).isNull();
+        assertThat(home.getHousehold()).isNull();
+        assertThat(home.getMembers()).isEmpty();
+        assertThat(home.getInvoices()).isEmpty();
+        assertThat(home.getRegistrations()).isEmpty();
+        verifyNoInteractions(householdService, invoiceService, registrationService);
+    }
+
+    @Test
+    void partFailure_propagatesOriginalRuntimeException() {
+        when(userAccountRepository.findHouseIdByEmail(EMAIL)).thenReturn(Optional.of(HOUSE_ID));
+        when(householdService.getHouseholdById(HOUSE_ID))
+                .thenThrow(new RuntimeException("Không tìm thấy hộ khẩu với ID: " + HOUSE_ID));
+
+        // Cùng loại + cùng thông báo như API lẻ GET /api/households/{id} (-> 400)
+        assertThatThrownBy(() -> homeService.getHome(EMAIL, 10))
+                .isExactlyInstanceOf(RuntimeException.class)
+                .hasMessage("Không tìm thấy hộ khẩu với ID: " + HOUSE_ID);
+    }
+
+    @Test
+    void slowPart_timesOutWith503AndRetryAfter() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userAccountRepository.findHouseIdByEmail(EMAIL)).thenReturn(Optional.of(HOUSE_ID));
+        when(householdService.getHouseholdById(HOUSE_ID)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return HouseholdResponse.builder().build();
+        });
+
+        try {
+            HomeLoadTimeoutException timeout = catchThrowableOfType(
+                    () -> homeService.getHome(EMAIL, 10), HomeLoadTimeoutException.class);
+
+            assertThat(timeout).isNotNull();
+            ResponseEntity<Object> response = new GlobalExceptionHandler().handleHomeLoadTimeout(timeout);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        } finally {
+            release.countDown();
+        }
+    }
+}
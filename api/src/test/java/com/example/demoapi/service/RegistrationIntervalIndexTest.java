@@ -0,0 +1,106 @@
+package com.example.demoapi.service;
+
+import com.example.demoapi.dto.RegistrationPeriod;
+import com.example.demoapi.model.Apartment;
+import com.example.demoapi.model.RegistrationStatus;
+import com.example.demoapi.model.RegistrationType;
+import com.example.demoapi.model.Resident;
+import com.example.demoapi.model.TemporaryRegistration;
+import com.example.demoapi.repository.ApartmentRepository;
+import com.example.demoapi.repository.ResidentRepository;
+import com.example.demoapi.repository.TemporaryRegistrationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+// Chạy trên DB thật, KHÔNG @Transactional ở mức test: cần rollback thật + transaction nạp chỉ mục riêng
+@SpringBootTest
+class RegistrationIntervalIndexTest {
+
+    private static final String BUILDING = "IDX-TEST";
+    private static final LocalDate START = LocalDate.of(2099, 1, 1);
+    private static final LocalDate END = LocalDate.of(2099, 1, 31);
+
+    @Autowired
+    private ApartmentRepository apartmentRepository;
+
+    @Autowired
+    private ResidentRepository residentRepository;
+
+    @Autowired
+    private TemporaryRegistrationRepository registrationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void firstReserveOnColdIndex_thenRollback_leavesNoPhantomReservation() {
+        // Chỉ mục mới, chưa nạp (giống lần tạo đơn đầu tiên sau khi khởi động)
+        RegistrationIntervalIndex index = new RegistrationIntervalIndex(registrationRepository, transactionManager);
+
+        // 1. Tạo đơn rồi giữ chỗ NGAY SAU save() (như RegistrationService.createRequest), sau đó rollback
+        RegistrationPeriod rolledBack = new TransactionTemplate(transactionManager).execute(status -> {
+            Apartment apartment = new Apartment();
+            apartment.setApartmentNumber("IDX-TEST-" + System.nanoTime());
+            apartment.setBuilding(BUILDING);
+            apartment.setArea(50.0);
+            apartmentRepository.save(apartment);
+
+            Resident resident = new Resident();
+            resident.setName("Index Test");
+            resident.setPhonenumber("0900000000");
+            resident.setApartment(apartment);
+            residentRepository.save(resident);
+
+            TemporaryRegistration reg = new TemporaryRegistration();
+            reg.setResident(resident);
+            reg.setApartment(apartment);
+            reg.setType(RegistrationType.TAM_VANG);
+            reg.setStatus(RegistrationStatus.APPROVED);
+            reg.setStartDate(START);
+            reg.setEndDate(END);
+            TemporaryRegistration saved = registrationRepository.save(reg);
+
+            RegistrationPeriod period = RegistrationIntervalIndex.periodOf(saved);
+            index.reserve(period);
+            status.setRollbackOnly();
+            return period;
+        });
+
+        // 2. Không còn dấu vết trong chỉ mục
+        assertThat(index.findApprovedOn(BUILDING, RegistrationType.TAM_VANG, START)).isEmpty();
+
+        // 3. Cùng cư dân, cùng khoảng thời gian: đơn hợp lệ không bị chặn bởi đơn "ma"
+        RegistrationPeriod retry = new RegistrationPeriod(rolledBack.id() + 1, rolledBack.residentId(),
+                rolledBack.houseId(), BUILDING, RegistrationType.TAM_VANG, RegistrationStatus.PENDING, START, END);
+        assertThatCode(() -> index.reserve(retry)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void reserveOfRejectedRegistration_removesItAndDoesNotBlockOverlaps() {
+        RegistrationIntervalIndex index = new RegistrationIntervalIndex(registrationRepository, transactionManager);
+        // Id / cư dân không có trong DB: chỉ mục nạp lúc đầu không chứa gì của cư dân này
+        int residentId = Integer.MAX_VALUE;
+        int rejectedId = Integer.MAX_VALUE - 1;
+
+        // 1. Đơn đang PENDING được giữ chỗ
+        index.reserve(new RegistrationPeriod(rejectedId, residentId, null, BUILDING,
+                RegistrationType.TAM_TRU, RegistrationStatus.PENDING, START, END));
+
+        // 2. Admin từ chối rồi sửa đơn (updateRequest -> reserve với trạng thái REJECTED)
+        index.reserve(new RegistrationPeriod(rejectedId, residentId, null, BUILDING,
+                RegistrationType.TAM_TRU, RegistrationStatus.REJECTED, START, END));
+
+        // 3. Đơn mới hợp lệ trùng thời gian không bị đơn đã từ chối chặn
+        RegistrationPeriod next = new RegistrationPeriod(rejectedId - 1, residentId, null, BUILDING,
+                RegistrationType.TAM_TRU, RegistrationStatus.PENDING, START, END);
+        assertThatCode(() -> index.reserve(next)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demoapi.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    @Test
+    void of_buildsQuotedStrongETag() {
+        assertThat(ETags.of("invoice", 12, 3L, "4.10.7")).isEqualTo("\"invoice-12-3-4.10.7\"");
+    }
+
+    @Test
+    void conditional_matchingIfNoneMatch_returns304WithoutBuildingBody() {
+        String etag = ETags.of("fees", "4.10.7");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/fees");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        AtomicInteger bodyCalls = new AtomicInteger();
+
+        ResponseEntity<String> response = ETags.conditional(
+                new ServletWebRequest(request, servletResponse), etag,
+                () -> "body-" + bodyCalls.incrementAndGet());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(servletResponse.getHeader("ETag")).isEqualTo(etag);
+        assertThat(response.getBody()).isNull();
+        assertThat(bodyCalls).hasValue(0);
+    }
+
+    @Test
+    void conditional_staleIfNoneMatch_returns200WithNewETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices/1");
+        request.addHeader("If-None-Match", ETags.of("invoice", 1, 0));
+        String current = ETags.of("invoice", 1, 1);
+
+        ResponseEntity<String> response = ETags.conditional(
+                new ServletWebRequest(request, new MockHttpServletResponse()), current, () -> "body");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(current);
+        assertThat(response.getHeaders().getCacheControl()).contains("no-cache");
+        assertThat(response.getBody()).isEqualTo("body");
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demoapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntervalTreeTest {
+
+    @Test
+    void findAnyOverlap_detectsOverlapAndRespectsExcludedId() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(10, 20, 1, "A");
+        tree.insert(30, 40, 2, "B");
+        tree.insert(50, Long.MAX_VALUE, 3, "C"); // Chưa có ngày kết thúc
+
+        assertThat(tree.findAnyOverlap(21, 29, -1)).isNull();   // Nằm giữa 2 khoảng
+        assertThat(tree.findAnyOverlap(20, 25, -1)).isEqualTo("A"); // Chạm biên (khoảng đóng)
+        assertThat(tree.findAnyOverlap(35, 36, 2)).isNull();    // Bỏ qua chính nó (khi cập nhật đơn)
+        assertThat(tree.findAnyOverlap(1000, 1001, -1)).isEqualTo("C");
+    }
+
+    @Test
+    void findContaining_returnsAllIntervalsCoveringPoint() {
+        IntervalTree<String> tree = new IntervalTree<>();
+        tree.insert(1, 10, 1, "A");
+        tree.insert(5, 7, 2, "B");
+        tree.insert(8, 12, 3, "C");
+
+        assertThat(tree.findContaining(6)).containsExactlyInAnyOrder("A", "B");
+        assertThat(tree.findContaining(9)).containsExactlyInAnyOrder("A", "C");
+        assertThat(tree.findContaining(13)).isEmpty();
+    }
+
+    @Test
+    void remove_keepsTreeConsistent() {
+        IntervalTree<Integer> tree = new IntervalTree<>();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i, i + 5, i, i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            assertThat(tree.remove(i, i)).isTrue();
+        }
+        assertThat(tree.remove(0, 0)).isFalse();
+        assertThat(tree.size()).isEqualTo(50);
+
+        List<Integer> covering = tree.findContaining(50);
+        assertThat(covering).containsExactlyInAnyOrder(45, 47, 49);
+    }
+}
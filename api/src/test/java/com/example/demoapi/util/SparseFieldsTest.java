@@ -0,0 +1,38 @@
+package com.example.demoapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SparseFieldsTest {
+
+    private static final Map<String, String> CATALOG = Map.of(
+            "id", "r.residentid",
+            "name", "r.name",
+            "roomNumber", "coalesce(a.apartmentNumber, 'N/A')");
+
+    @Test
+    void parse_keepsRequestedOrder_prependsId_dropsDuplicates() {
+        SparseFields fields = SparseFields.parse(" roomNumber, name,,roomNumber ", CATALOG);
+
+        assertThat(fields.names()).containsExactly("id", "roomNumber", "name");
+        assertThat(fields.selectClause()).isEqualTo("r.residentid, coalesce(a.apartmentNumber, 'N/A'), r.name");
+    }
+
+    @Test
+    void parse_unknownField_isRejected() {
+        assertThatThrownBy(() -> SparseFields.parse("name,password", CATALOG))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("password");
+    }
+
+    @Test
+    void requested_onlyWhenFieldsHasText() {
+        assertThat(SparseFields.requested(null)).isFalse();
+        assertThat(SparseFields.requested(" ")).isFalse();
+        assertThat(SparseFields.requested("name")).isTrue();
+    }
+}